@@ -0,0 +1,87 @@
+package com.github.aureliano.cgraml.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.apache.commons.io.FileUtils;
+import org.yaml.snakeyaml.Yaml;
+
+import com.github.aureliano.cgraml.code.gen.Configuration;
+import com.github.aureliano.cgraml.support.QuietLog;
+
+final class BenchmarkHelper {
+	
+	public static final String BASE_PACKAGE = "com.benchmark";
+	
+	private static final File BENCHMARK_DIRECTORY = new File("target/benchmarks");
+	
+	private BenchmarkHelper() {
+		super();
+	}
+	
+	/**
+	 * The RAML parser resolves documents relative to the working directory, so the corpus is written under target
+	 * instead of the system temporary directory.
+	 */
+	public static File createDirectory(String prefix) throws IOException {
+		File directory = new File(BENCHMARK_DIRECTORY, prefix + "-" + System.nanoTime());
+		if (!directory.mkdirs()) {
+			throw new IOException("Could not create directory " + directory.getPath());
+		}
+		
+		return directory;
+	}
+	
+	public static Configuration createConfiguration(File directory, int threads) {
+		return new Configuration()
+			.withBasePackageName(BASE_PACKAGE)
+			.withSourceDirectory(new File(directory, "raml"))
+			.withGeneratedSourcesTarget(new File(directory, "src/" + BASE_PACKAGE.replace('.', '/')))
+			.withIncremental(false)
+			.withThreads(threads)
+			.withLogger(new QuietLog());
+	}
+	
+	/**
+	 * Loads a RAML file as plain YAML maps, which is how the generators read RAML files before they shared the parsed
+	 * document. Kept as the baseline of the parsing benchmarks.
+	 */
+	public static Map<?, ?> parseYaml(File file) throws IOException {
+		return new Yaml().loadAs(FileUtils.readFileToString(file, "UTF-8"), Map.class);
+	}
+	
+	/**
+	 * Compiles generated sources against the benchmark class path and loads them, so generated code can be measured
+	 * without being part of the build.
+	 */
+	public static ClassLoader compile(File classesDirectory, File... sources) throws IOException {
+		List<String> arguments = new ArrayList<String>(Arrays.asList("-nowarn", "-proc:none", "-d", classesDirectory.getPath(),
+				"-cp", System.getProperty("java.class.path")));
+		for (File source : sources) {
+			if (source.isDirectory()) {
+				for (File file : FileUtils.listFiles(source, new String[] { "java" }, true)) {
+					arguments.add(file.getPath());
+				}
+			} else {
+				arguments.add(source.getPath());
+			}
+		}
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		classesDirectory.mkdirs();
+		if ((compiler == null) || (compiler.run(null, null, null, arguments.toArray(new String[arguments.size()])) != 0)) {
+			throw new IOException("Could not compile generated sources. A JDK is required.");
+		}
+		
+		return new URLClassLoader(new URL[] { classesDirectory.toURI().toURL() }, BenchmarkHelper.class.getClassLoader());
+	}
+}
@@ -0,0 +1,93 @@
+package com.github.aureliano.cgraml.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.aureliano.cgraml.code.builder.CodeBuilder;
+import com.github.aureliano.cgraml.code.builder.IBuilder;
+import com.github.aureliano.cgraml.code.gen.Configuration;
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
+import com.github.aureliano.cgraml.code.gen.GeneratorType;
+import com.github.aureliano.cgraml.code.gen.RamlDocument;
+import com.github.aureliano.cgraml.code.meta.ServiceMeta;
+import com.github.aureliano.cgraml.helper.RamlHelper;
+import com.github.aureliano.cgraml.support.RamlCorpus;
+
+/**
+ * Measures the parse step of the model and service builders, which turns schemas and resources into class metadata.
+ * A new context is used on every invocation so no class is skipped as already generated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class BuilderBenchmark {
+	
+	private static final String PACKAGE_NAME = "com.benchmark.gen";
+	
+	@Param({ "10", "100", "1000", "5000" })
+	private int resources;
+	
+	private File directory;
+	private Configuration configuration;
+	private List<Map<String, String>> schemas;
+	private List<ServiceMeta> services;
+	
+	@Setup
+	public void setUp() throws Exception {
+		this.directory = BenchmarkHelper.createDirectory("builder");
+		File ramlFile = new RamlCorpus().withResources(this.resources).write(new File(this.directory, "api.raml"));
+		RamlDocument document = RamlHelper.loadDocument(ramlFile);
+		
+		this.configuration = BenchmarkHelper.createConfiguration(this.directory, 1);
+		this.schemas = document.getRaml().getSchemas();
+		
+		this.services = new ArrayList<ServiceMeta>(document.getServiceGraph().getServices());
+	}
+	
+	@TearDown
+	public void tearDown() {
+		FileUtils.deleteQuietly(this.directory);
+	}
+	
+	@Benchmark
+	public void modelBuilderParse(Blackhole blackhole) {
+		GenerationContext context = new GenerationContext(this.configuration);
+		for (Map<String, String> schema : this.schemas) {
+			String entity = schema.keySet().iterator().next();
+			IBuilder builder = CodeBuilder.create(GeneratorType.MODEL).withContext(context);
+			
+			blackhole.consume(builder.parse(PACKAGE_NAME, entity, schema.get(entity)));
+		}
+	}
+	
+	@Benchmark
+	public void serviceBuilderParse(Blackhole blackhole) {
+		GenerationContext context = new GenerationContext(this.configuration);
+		for (ServiceMeta service : this.services) {
+			IBuilder builder = CodeBuilder.create(GeneratorType.SERVICE).withContext(context);
+			
+			blackhole.consume(builder.parse(PACKAGE_NAME, service.getUri(), service));
+		}
+	}
+}
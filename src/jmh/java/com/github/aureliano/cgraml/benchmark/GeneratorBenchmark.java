@@ -0,0 +1,62 @@
+package com.github.aureliano.cgraml.benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.aureliano.cgraml.code.gen.Generator;
+import com.github.aureliano.cgraml.support.RamlCorpus;
+
+/**
+ * Full generation of a synthetic API: validation, parsing, every generator layer and the comparison with the sources
+ * already on disk. After the first invocation nothing changes, so the writes are skipped and the steady state of a
+ * rebuild is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class GeneratorBenchmark {
+	
+	@Param({ "10", "100", "1000", "5000" })
+	private int resources;
+	
+	@Param({ "1", "4" })
+	private int threads;
+	
+	private File directory;
+	private Generator generator;
+	
+	@Setup
+	public void setUp() throws Exception {
+		this.directory = BenchmarkHelper.createDirectory("generator");
+		new RamlCorpus().withResources(this.resources).write(new File(this.directory, "raml/api.raml"));
+		
+		this.generator = new Generator().withConfiguration(BenchmarkHelper.createConfiguration(this.directory, this.threads));
+	}
+	
+	@TearDown
+	public void tearDown() {
+		FileUtils.deleteQuietly(this.directory);
+	}
+	
+	@Benchmark
+	public void run() {
+		this.generator.run();
+	}
+}
@@ -0,0 +1,182 @@
+package com.github.aureliano.cgraml.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.http.impl.io.ChunkedOutputStream;
+import org.apache.http.impl.io.ContentLengthOutputStream;
+import org.apache.http.impl.io.HttpTransportMetricsImpl;
+import org.apache.http.impl.io.SessionOutputBufferImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.aureliano.cgraml.code.builder.ClientContextBuilder;
+import com.github.aureliano.cgraml.code.gen.Generator;
+import com.github.aureliano.cgraml.code.gen.JsonContextGenerator;
+
+/**
+ * JSON mapping done by generated services on every call, for the Product and Products models of the sample API: a new
+ * object mapper per call (as services did before) against the reader and writer cached by the generated JsonContext.
+ * Entities are also decoded and encoded both ways services did: through a string holding the whole entity, and
+ * straight from or to the entity stream. The models and the JsonContext are generated and compiled at setup, so the generated code itself
+ * is measured.
+ * <p>
+ * Entities are finally sent the two ways the generated ClientContext lets Jersey send them, through the session buffer
+ * of an HTTP connection of the Apache connector: buffered with their length, or streamed in chunks of the default
+ * chunk size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class JsonMappingBenchmark {
+	
+	@Param({ "1", "100" })
+	private int products;
+	
+	private File directory;
+	private Class<?> productType;
+	private Class<?> productsType;
+	private Method reader;
+	private Method writer;
+	private Method read;
+	private Method write;
+	private String productsJson;
+	private byte[] productsEntity;
+	private Object product;
+	private Object productCollection;
+	private SessionOutputBufferImpl connection;
+	
+	@Setup
+	public void setUp() throws Exception {
+		this.directory = BenchmarkHelper.createDirectory("json");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(this.directory, "raml/api.raml"));
+		new Generator().withConfiguration(BenchmarkHelper.createConfiguration(this.directory, 1)).run();
+		
+		File gen = new File(this.directory, "src/" + BenchmarkHelper.BASE_PACKAGE.replace('.', '/') + "/gen");
+		ClassLoader classLoader = BenchmarkHelper.compile(new File(this.directory, "classes"), new File(gen, "model"),
+				new File(gen, "service/" + JsonContextGenerator.CLASS_NAME + ".java"));
+		
+		String pkg = BenchmarkHelper.BASE_PACKAGE + ".gen";
+		this.productType = classLoader.loadClass(pkg + ".model.Product");
+		this.productsType = classLoader.loadClass(pkg + ".model.Products");
+		
+		Class<?> jsonContext = classLoader.loadClass(pkg + ".service." + JsonContextGenerator.CLASS_NAME);
+		this.reader = jsonContext.getMethod("reader", Class.class);
+		this.writer = jsonContext.getMethod("writer", Class.class);
+		this.read = jsonContext.getMethod("read", Class.class, InputStream.class);
+		this.write = jsonContext.getMethod("write", Class.class, Object.class, OutputStream.class);
+		
+		ObjectMapper mapper = new ObjectMapper();
+		ObjectNode collection = mapper.createObjectNode();
+		ArrayNode elements = collection.put("size", this.products).putArray("products");
+		for (int i = 0; i < this.products; i++) {
+			elements.addObject()
+				.put("id", String.valueOf(i))
+				.put("name", "Product " + i)
+				.put("description", "Description of the product number " + i)
+				.put("imageUrl", "http://example.api.com/images/" + i + ".png")
+				.put("region", "BR");
+		}
+		
+		this.productsJson = mapper.writeValueAsString(collection);
+		this.productsEntity = this.productsJson.getBytes("UTF-8");
+		this.product = mapper.treeToValue(elements.get(0), this.productType);
+		this.productCollection = mapper.treeToValue(collection, this.productsType);
+		
+		this.connection = new SessionOutputBufferImpl(new HttpTransportMetricsImpl(), 8192);
+		this.connection.bind(NullOutputStream.NULL_OUTPUT_STREAM);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		FileUtils.deleteQuietly(this.directory);
+	}
+	
+	@Benchmark
+	public Object readProductsWithNewMapper() throws Exception {
+		return new ObjectMapper().readValue(this.productsJson, this.productsType);
+	}
+	
+	@Benchmark
+	public Object readProductsWithCachedReader() throws Exception {
+		ObjectReader reader = (ObjectReader) this.reader.invoke(null, this.productsType);
+		return reader.readValue(this.productsJson);
+	}
+	
+	@Benchmark
+	public Object readProductsEntityThroughString() throws Exception {
+		ObjectReader reader = (ObjectReader) this.reader.invoke(null, this.productsType);
+		return reader.readValue(new String(this.productsEntity, "UTF-8"));
+	}
+	
+	@Benchmark
+	public Object readProductsEntityFromStream() throws Exception {
+		return this.read.invoke(null, this.productsType, new ByteArrayInputStream(this.productsEntity));
+	}
+	
+	@Benchmark
+	public String writeProductWithNewMapper() throws Exception {
+		return new ObjectMapper().writeValueAsString(this.product);
+	}
+	
+	@Benchmark
+	public String writeProductWithCachedWriter() throws Exception {
+		ObjectWriter writer = (ObjectWriter) this.writer.invoke(null, this.productType);
+		return writer.writeValueAsString(this.product);
+	}
+	
+	@Benchmark
+	public void writeProductsEntityThroughString() throws Exception {
+		ObjectWriter writer = (ObjectWriter) this.writer.invoke(null, this.productsType);
+		NullOutputStream.NULL_OUTPUT_STREAM.write(writer.writeValueAsString(this.productCollection).getBytes("UTF-8"));
+	}
+
+	@Benchmark
+	public void writeProductsEntityToStream() throws Exception {
+		this.write.invoke(null, this.productsType, this.productCollection, NullOutputStream.NULL_OUTPUT_STREAM);
+	}
+	
+	@Benchmark
+	public void sendProductsEntityBuffered() throws Exception {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		this.write.invoke(null, this.productsType, this.productCollection, buffer);
+		
+		OutputStream output = new ContentLengthOutputStream(this.connection, buffer.size());
+		buffer.writeTo(output);
+		output.close();
+		this.connection.flush();
+	}
+	
+	@Benchmark
+	public void sendProductsEntityChunked() throws Exception {
+		OutputStream output = new ChunkedOutputStream(ClientContextBuilder.DEFAULT_CHUNK_SIZE, this.connection);
+		this.write.invoke(null, this.productsType, this.productCollection, output);
+		output.close();
+		this.connection.flush();
+	}
+}
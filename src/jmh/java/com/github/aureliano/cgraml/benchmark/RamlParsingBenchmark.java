@@ -0,0 +1,69 @@
+package com.github.aureliano.cgraml.benchmark;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.raml.model.Raml;
+
+import com.github.aureliano.cgraml.helper.RamlHelper;
+import com.github.aureliano.cgraml.helper.ValidationHelper;
+import com.github.aureliano.cgraml.support.RamlCorpus;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class RamlParsingBenchmark {
+	
+	@Param({ "10", "100", "1000", "5000" })
+	private int resources;
+	
+	private File directory;
+	private File ramlFile;
+	private String content;
+	private String location;
+	
+	@Setup
+	public void setUp() throws Exception {
+		this.directory = BenchmarkHelper.createDirectory("parsing");
+		this.ramlFile = new RamlCorpus().withResources(this.resources).write(new File(this.directory, "api.raml"));
+		this.content = FileUtils.readFileToString(this.ramlFile, "UTF-8");
+		this.location = RamlHelper.resourceLocation(this.ramlFile);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		FileUtils.deleteQuietly(this.directory);
+	}
+	
+	@Benchmark
+	public Raml parseModel() {
+		return RamlHelper.parseModel(this.content, this.location);
+	}
+	
+	@Benchmark
+	public Map<?, ?> parseYaml() throws Exception {
+		return BenchmarkHelper.parseYaml(this.ramlFile);
+	}
+	
+	@Benchmark
+	public void validateRamlFile() {
+		ValidationHelper.validateRamlFile(this.ramlFile);
+	}
+}
@@ -2,6 +2,7 @@ package com.github.aureliano.cgraml;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
@@ -21,6 +22,7 @@ import com.github.aureliano.cgraml.helper.ValidationHelper;
  * 
  * @author Aureliano
  * @goal generate
+ * @threadSafe
  */
 public class AppMojo extends AbstractMojo {
 
@@ -34,11 +36,46 @@ public class AppMojo extends AbstractMojo {
 	 */
 	private String basePackageName;
 	
+	/**
+	 * @parameter expression="${outputDirectory}" default-value="${project.basedir}/src/main/java"
+	 */
+	private File outputDirectory;
+	
 	/**
 	 * @parameter expression="${removeOldOutput}"
 	 */
 	private boolean removeOldOutput;
 	
+	/**
+	 * @parameter expression="${incremental}" default-value="true"
+	 */
+	private boolean incremental;
+	
+	/**
+	 * @parameter expression="${workingDirectory}" default-value="${project.build.directory}/cgraml"
+	 */
+	private File workingDirectory;
+	
+	/**
+	 * @parameter expression="${threads}" default-value="1"
+	 */
+	private int threads;
+	
+	/**
+	 * @parameter expression="${streaming}" default-value="false"
+	 */
+	private boolean streaming;
+	
+	/**
+	 * @parameter
+	 */
+	private String[] includes;
+	
+	/**
+	 * @parameter
+	 */
+	private String[] excludes;
+	
 	/**
 	 * @parameter skip="${skip}"
 	 */
@@ -61,12 +98,17 @@ public class AppMojo extends AbstractMojo {
 	
 	private void executeMojo() throws IOException {
 		this.printExecutionInformation();
+		Generator generator = this.createGenerator();
 		
 		if (this.removeOldOutput) {
-			this.cleanGeneratedCode();
+			this.cleanGeneratedCode(generator.getConfiguration());
 		}
 		
-		this.createGenerator().run();
+		this.generate(generator);
+	}
+	
+	protected void generate(Generator generator) {
+		generator.run();
 	}
 	
 	private void printExecutionInformation() {
@@ -74,13 +116,19 @@ public class AppMojo extends AbstractMojo {
 		super.getLog().info("Base package name: " + this.basePackageName);
 		super.getLog().info("Sources directory target: " + this.sourcesTargetDirectory() + " (" + ICodeGenerator.DEFAULT_GEN_DIRECTORY + ") if null");
 		super.getLog().info("Remove old output? " + this.removeOldOutput);
+		super.getLog().info("Incremental generation? " + this.incremental);
+		super.getLog().info("Threads: " + this.threads);
+		super.getLog().info("Streaming? " + this.streaming);
+		super.getLog().info("Includes: " + ((ArrayUtils.isEmpty(this.includes)) ? Configuration.DEFAULT_INCLUDE : Arrays.toString(this.includes)));
+		super.getLog().info("Excludes: " + ((ArrayUtils.isEmpty(this.excludes)) ? "none" : Arrays.toString(this.excludes)));
 	}
 	
-	private void cleanGeneratedCode() throws IOException {
+	private void cleanGeneratedCode(Configuration configuration) throws IOException {
 		String generatedSourcesDir = this.sourcesTargetDirectory() + File.separator + "gen";
 		super.getLog().info("Deleting generated sources directory " + generatedSourcesDir);
 		
 		FileUtils.deleteDirectory(new File(generatedSourcesDir));
+		FileUtils.deleteQuietly(configuration.getExecutionDirectory());
 	}
 
 	private void validateExecution() throws MojoExecutionException {
@@ -92,19 +140,32 @@ public class AppMojo extends AbstractMojo {
 		}
 	}
 	
-	private Generator createGenerator() {
+	protected Generator createGenerator() {
+		Configuration configuration = new Configuration();
+		if (!ArrayUtils.isEmpty(this.includes)) {
+			configuration.withIncludes(Arrays.asList(this.includes));
+		}
+		
+		if (!ArrayUtils.isEmpty(this.excludes)) {
+			configuration.withExcludes(Arrays.asList(this.excludes));
+		}
+		
 		return new Generator()
 			.withConfiguration(
-				new Configuration()
+				configuration
 				.withBasePackageName(this.basePackageName)
 				.withSourceDirectory(this.sourceDirectory)
 				.withGeneratedSourcesTarget(new File(this.sourcesTargetDirectory()))
+				.withWorkingDirectory(this.workingDirectory)
+				.withIncremental(this.incremental)
+				.withThreads(this.threads)
+				.withStreaming(this.streaming)
 				.withLogger(super.getLog())
 			);
 	}
 	
 	private String sourcesTargetDirectory() {
-		String[] baseDir = new String[] { "src", "main", "java" };
+		String[] baseDir = new String[] { this.outputDirectory.getPath() };
 		String[] dir = this.basePackageName.split(Pattern.quote("."));
 
 		return StringUtils.join(ArrayUtils.addAll(baseDir, dir), File.separator);
@@ -0,0 +1,63 @@
+package com.github.aureliano.cgraml;
+
+import java.io.File;
+import java.util.Set;
+
+import org.apache.commons.io.IOUtils;
+
+import com.github.aureliano.cgraml.code.gen.Generator;
+import com.github.aureliano.cgraml.code.gen.SourceWatcher;
+
+/**
+ * Generates sources like the generate goal and then keeps watching the RAML files (and the files they include),
+ * generating again whenever they change. Generation is always incremental and the generator is kept between changes
+ * with its manifest, dependency index, validation cache and document cache in memory: only the RAML files which
+ * changed, or include a changed file, are read and parsed again, and only changed sources are written. Stop it with
+ * Ctrl+C.
+ * 
+ * @author Aureliano
+ * @goal watch
+ */
+public class WatchMojo extends AppMojo {
+	
+	/**
+	 * @parameter expression="${quietPeriod}" default-value="100"
+	 */
+	private long quietPeriod;
+	
+	@Override
+	protected void generate(Generator generator) {
+		generator.getConfiguration().withIncremental(true);
+		generator.run();
+		
+		SourceWatcher watcher = new SourceWatcher(generator.getConfiguration());
+		try {
+			watcher.watch(generator.getSourceFiles());
+			super.getLog().info("Watching " + generator.getConfiguration().getSourceDirectory().getPath() + " for changes...");
+			
+			while (true) {
+				Set<File> changedFiles = watcher.take(this.quietPeriod);
+				for (File file : changedFiles) {
+					super.getLog().info("Changed: " + file.getPath());
+				}
+				
+				this.regenerate(generator, watcher, changedFiles);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} finally {
+			IOUtils.closeQuietly(watcher);
+		}
+	}
+	
+	private void regenerate(Generator generator, SourceWatcher watcher, Set<File> changedFiles) {
+		long start = System.currentTimeMillis();
+		try {
+			generator.run(changedFiles);
+			watcher.watch(generator.getSourceFiles());
+			super.getLog().info("Generation took " + (System.currentTimeMillis() - start) + " ms. Watching for changes...");
+		} catch (RuntimeException ex) {
+			super.getLog().error("Generation failed: " + ex.getMessage() + ". Watching for changes...");
+		}
+	}
+}
@@ -1,11 +1,12 @@
 package com.github.aureliano.cgraml.code.builder;
 
-import java.io.File;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.github.aureliano.cgraml.code.gen.ClientContextGenerator;
 import com.github.aureliano.cgraml.code.gen.EagerDataListGenerator;
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
 import com.github.aureliano.cgraml.code.meta.ClassMeta;
 import com.github.aureliano.cgraml.code.meta.FieldMeta;
 import com.github.aureliano.cgraml.code.meta.MethodMeta;
@@ -19,6 +20,7 @@ import com.sun.codemodel.JMethod;
 public class ApiMapServicesBuilder implements IBuilder {
 
 	private ClassMeta clazz;
+	private GenerationContext context;
 	private String baseUri;
 	
 	public ApiMapServicesBuilder() {
@@ -36,10 +38,13 @@ public class ApiMapServicesBuilder implements IBuilder {
 			.withClassName(StringUtils.capitalize(entity) + "Service");
 
 		FieldMeta baseUriField = this.addBaseUriField();
+		FieldMeta clientContextField = this.addClientContextField();
 		FieldMeta instanceField = this.addInstanceField();
 		
 		this.clazz.addMethod(CodeBuilderHelper.createGetterMethod(baseUriField));
+		this.clazz.addMethod(CodeBuilderHelper.createGetterMethod(clientContextField));
 		this.addInstanceMethod(instanceField);
+		this.addCloseMethod(clientContextField);
 		
 		for (ServiceMeta service : resources) {
 			this.addServiceMethod(service);
@@ -56,6 +61,13 @@ public class ApiMapServicesBuilder implements IBuilder {
 		return this;
 	}
 	
+	@SuppressWarnings("unchecked")
+	@Override
+	public ApiMapServicesBuilder withContext(GenerationContext context) {
+		this.context = context;
+		return this;
+	}
+	
 	private void buildJavaClass() {
 		try {
 			JCodeModel codeModel = new JCodeModel();
@@ -64,11 +76,12 @@ public class ApiMapServicesBuilder implements IBuilder {
 			
 			JMethod constructor = definedClass.constructor(Visibility.PRIVATE.getMod());
 			constructor.body().directStatement(String.format("this.baseUri = \"%s\";", this.baseUri));
+			constructor.body().directStatement("this.clientContext = new " + ClientContextGenerator.CLASS_NAME + "();");
 			
 			this.appendClassAttributes(codeModel, definedClass);
 			this.appendClassMethods(codeModel, definedClass);
 			
-			codeModel.build(new File("src/main/java"));
+			codeModel.build(this.context.getCodeWriter());
 		} catch (Exception ex) {
 			throw new RuntimeException(ex);
 		}
@@ -76,13 +89,13 @@ public class ApiMapServicesBuilder implements IBuilder {
 
 	private void appendClassAttributes(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (FieldMeta field : this.clazz.getFields()) {
-			CodeBuilderHelper.addAttributeToClass(codeModel, definedClass, field);
+			CodeBuilderHelper.addAttributeToClass(this.context.getTypeRegistry(), codeModel, definedClass, field);
 		}
 	}
 
 	private void appendClassMethods(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (MethodMeta method : this.clazz.getMethods()) {
-			CodeBuilderHelper.addMethodToClass(codeModel, definedClass, method);
+			CodeBuilderHelper.addMethodToClass(this.context.getTypeRegistry(), codeModel, definedClass, method);
 		}
 	}
 
@@ -124,6 +137,20 @@ public class ApiMapServicesBuilder implements IBuilder {
 		overridedMethod.addParameter(param);
 		overridedMethod.setBody(this.getFetchDataMethodBody(service, true));
 		this.clazz.addMethod(overridedMethod);
+		
+		// An eager data list fetches its pages on the thread reading it, so they are all fetched by the task instead.
+		String executor = "this.clientContext.getExecutor()";
+		String receiver = this.clazz.getClassName() + ".this";
+		String result = "%s";
+		if (!StringUtils.isEmpty(service.getGenericType())) {
+			result = String.format("((%s.%s<%s>) %%s).fetchAll()", this.clazz.getPackageName().replaceAll(".service$", ""),
+					EagerDataListGenerator.CLASS_NAME, method.getGenericReturnType());
+		}
+		
+		this.clazz.addMethod(CodeBuilderHelper.createAsyncMethod(method, executor, receiver, result));
+		this.clazz.addMethod(CodeBuilderHelper.createAsyncMethod(overridedMethod, executor, receiver, result));
+		this.clazz.addMethod(CodeBuilderHelper.createAsyncCallbackMethod(method, executor, receiver, result));
+		this.clazz.addMethod(CodeBuilderHelper.createAsyncCallbackMethod(overridedMethod, executor, receiver, result));
 	}
 	
 	private String getFetchDataMethodBody(ServiceMeta service, boolean parameterized) {
@@ -168,12 +195,27 @@ public class ApiMapServicesBuilder implements IBuilder {
 		return field;
 	}
 	
+	private FieldMeta addClientContextField() {
+		FieldMeta field = new FieldMeta();
+		field.setName("clientContext");
+		field.setType(this.clazz.getPackageName() + "." + ClientContextGenerator.CLASS_NAME);
+		field.setVisibility(Visibility.PRIVATE);
+		
+		this.clazz.addField(field);
+		return field;
+	}
+	
+	/**
+	 * The instance is created eagerly, so concurrent callers never build two instances (and two HTTP clients).
+	 */
 	private FieldMeta addInstanceField() {
 		FieldMeta field = new FieldMeta();
 		field.setName("instance");
 		field.setType(this.clazz.getClassName());
 		field.setVisibility(Visibility.PRIVATE);
 		field.setStaticField(true);
+		field.setFinalField(true);
+		field.setInitValue("new " + this.clazz.getClassName() + "()");
 		
 		this.clazz.addField(field);
 		return field;
@@ -188,14 +230,16 @@ public class ApiMapServicesBuilder implements IBuilder {
 		method.setStaticMethod(true);
 		method.setFinalMethod(true);
 		
-		method.setBody(new StringBuilder("if (" + instanceField.getName() + " == null) {")
-			.append("\n" + CodeBuilderHelper.tabulation(3))
-			.append(instanceField.getName() + " = new " + instanceField.getType() + "();")
-			.append("\n" + CodeBuilderHelper.tabulation(2))
-			.append("}")
-			.append("\n\n" + CodeBuilderHelper.tabulation(2))
-			.append("return " + instanceField.getName() + ";")
-			.toString());
+		method.setBody("return " + instanceField.getName() + ";");
+		this.clazz.addMethod(method);
+	}
+	
+	private void addCloseMethod(FieldMeta clientContextField) {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName("close");
+		method.setVisibility(Visibility.PUBLIC);
+		method.setBody("this." + clientContextField.getName() + ".close();");
 		
 		this.clazz.addMethod(method);
 	}
@@ -0,0 +1,394 @@
+package com.github.aureliano.cgraml.code.builder;
+
+import java.io.Closeable;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
+import com.github.aureliano.cgraml.code.meta.ClassMeta;
+import com.github.aureliano.cgraml.code.meta.FieldMeta;
+import com.github.aureliano.cgraml.code.meta.MethodMeta;
+import com.github.aureliano.cgraml.code.meta.Visibility;
+import com.github.aureliano.cgraml.helper.CodeBuilderHelper;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+
+/**
+ * Builds the class owning the HTTP client shared by all generated services. The client uses a pool of connections
+ * (Jersey Apache connector) which is created on first use and released by <code>close()</code>.
+ */
+public class ClientContextBuilder implements IBuilder {
+	
+	public static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 200;
+	public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+	public static final long DEFAULT_IDLE_CONNECTION_TIMEOUT = 30000L;
+	public static final int DEFAULT_CHUNK_SIZE = 4096;
+	
+	private static final String CONNECTION_MANAGER_TYPE = "org.apache.http.impl.conn.PoolingHttpClientConnectionManager";
+	private static final String CLIENT_PROPERTIES = "org.glassfish.jersey.client.ClientProperties";
+	private static final String ENTITY_PROCESSING = "org.glassfish.jersey.client.RequestEntityProcessing";
+	private static final String EXECUTOR_TYPE = "java.util.concurrent.ExecutorService";
+	private static final String THREAD_FACTORY_TYPE = "java.util.concurrent.ThreadFactory";
+	private static final String MILLISECONDS = "java.util.concurrent.TimeUnit.MILLISECONDS";
+	
+	private ClassMeta clazz;
+	private GenerationContext context;
+	
+	public ClientContextBuilder() {
+		super();
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public ClientContextBuilder parse(String pkg, String entity, Object resource) {
+		String javaDoc = new StringBuilder()
+			.append("Generated by cgraml-maven-plugin.")
+			.append("\n\n")
+			.append("Owns the thread-safe HTTP client shared by all services and its pool of connections.\n")
+			.append("Request entities are sent as they are serialized, using chunked transfer encoding with chunks of chunkSize bytes.\n")
+			.append("With a chunkSize of 0 they are buffered instead, so that their length is sent to servers which require it.\n")
+			.append("Asynchronous requests run on the executor given with withExecutor(), or else on a pool of daemon threads which is\n")
+			.append("created on first use and shut down by close().\n")
+			.append("Settings take effect when the client is created, that is on the first request or on the first one after close().\n")
+			.append("Once created, the client and the executor are read without locking.")
+			.toString();
+		
+		this.clazz = new ClassMeta()
+			.withPackageName(pkg)
+			.withJavaDoc(javaDoc)
+			.withClassName(StringUtils.capitalize(entity));
+		
+		this.clazz.addInterface(Closeable.class.getName());
+		
+		this.addSettingField("maxTotalConnections", "int");
+		this.addSettingField("maxConnectionsPerRoute", "int");
+		this.addSettingField("idleConnectionTimeout", "long");
+		this.addSettingField("chunkSize", "int");
+		this.addField("client", "javax.ws.rs.client.Client").setVolatileField(true);
+		this.addField("connectionManager", CONNECTION_MANAGER_TYPE);
+		this.addField("evictionExecutor", "java.util.concurrent.ScheduledExecutorService");
+		this.addExecutorField();
+		this.addField("defaultExecutor", EXECUTOR_TYPE).setVolatileField(true);
+		
+		this.addGetClientMethod();
+		this.addCreateClientMethod();
+		this.addScheduleEvictionMethod();
+		this.addGetExecutorMethod();
+		this.addCreateThreadFactoryMethod();
+		this.addCloseMethod();
+		
+		return this;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public ClientContextBuilder build() {
+		this.buildJavaClass();
+		return this;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public ClientContextBuilder withContext(GenerationContext context) {
+		this.context = context;
+		return this;
+	}
+	
+	private void buildJavaClass() {
+		try {
+			JCodeModel codeModel = new JCodeModel();
+			JDefinedClass definedClass = codeModel._class(this.clazz.getCanonicalClassName());
+			definedClass.javadoc().append(this.clazz.getJavaDoc());
+			
+			for (String interfaceName : this.clazz.getInterfaces()) {
+				definedClass._implements(codeModel.ref(interfaceName));
+			}
+			
+			JMethod constructor = definedClass.constructor(JMod.PUBLIC);
+			constructor.body().directStatement(this.getConstructorBody());
+			
+			this.appendClassAttributes(codeModel, definedClass);
+			this.appendClassMethods(codeModel, definedClass);
+			
+			codeModel.build(this.context.getCodeWriter());
+		} catch (Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	private String getConstructorBody() {
+		return new StringBuilder()
+			.append("this.maxTotalConnections = " + DEFAULT_MAX_TOTAL_CONNECTIONS + ";")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("this.maxConnectionsPerRoute = " + DEFAULT_MAX_CONNECTIONS_PER_ROUTE + ";")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("this.idleConnectionTimeout = " + DEFAULT_IDLE_CONNECTION_TIMEOUT + "L;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("this.chunkSize = " + DEFAULT_CHUNK_SIZE + ";")
+			.toString();
+	}
+	
+	private void appendClassMethods(JCodeModel codeModel, JDefinedClass definedClass) {
+		for (MethodMeta method : this.clazz.getMethods()) {
+			JMethod jm = CodeBuilderHelper.addMethodToClass(this.context.getTypeRegistry(), codeModel, definedClass, method);
+			if ("close".equals(method.getName())) {
+				jm.mods().setSynchronized(true);
+			}
+		}
+	}
+	
+	private void appendClassAttributes(JCodeModel codeModel, JDefinedClass definedClass) {
+		for (FieldMeta field : this.clazz.getFields()) {
+			CodeBuilderHelper.addAttributeToClass(this.context.getTypeRegistry(), codeModel, definedClass, field);
+		}
+	}
+	
+	private FieldMeta addField(String name, String type) {
+		FieldMeta field = new FieldMeta();
+		
+		field.setName(name);
+		field.setVisibility(Visibility.PRIVATE);
+		field.setType(type);
+		
+		this.clazz.addField(field);
+		return field;
+	}
+	
+	private void addSettingField(String name, String type) {
+		FieldMeta field = this.addField(name, type);
+		
+		this.clazz.addMethod(CodeBuilderHelper.createGetterMethod(field));
+		this.clazz.addMethod(CodeBuilderHelper.createBuilderMethod(this.clazz.getClassName(), field));
+	}
+	
+	private void addExecutorField() {
+		FieldMeta field = this.addField("executor", EXECUTOR_TYPE);
+		field.setVolatileField(true);
+		this.clazz.addMethod(CodeBuilderHelper.createBuilderMethod(this.clazz.getClassName(), field));
+	}
+	
+	private void addGetClientMethod() {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName("getClient");
+		method.setVisibility(Visibility.PUBLIC);
+		method.setReturnType("javax.ws.rs.client.Client");
+		method.setBody(new StringBuilder()
+			.append("javax.ws.rs.client.Client current = this.client;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("if (current != null) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("return current;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("synchronized (this) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("if (this.client == null) {")
+			.append("\n" + CodeBuilderHelper.tabulation(4))
+			.append("this.client = this.createClient();")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("}")
+			.append("\n\n" + CodeBuilderHelper.tabulation(3))
+			.append("return this.client;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.toString());
+		
+		this.clazz.addMethod(method);
+	}
+	
+	private void addCreateClientMethod() {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName("createClient");
+		method.setVisibility(Visibility.PROTECTED);
+		method.setReturnType("javax.ws.rs.client.Client");
+		method.setBody(new StringBuilder()
+			.append("this.connectionManager = new " + CONNECTION_MANAGER_TYPE + "();")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("this.connectionManager.setMaxTotal(this.maxTotalConnections);")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("this.connectionManager.setDefaultMaxPerRoute(this.maxConnectionsPerRoute);")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("if (this.idleConnectionTimeout > 0) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("this.scheduleEviction();")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("org.glassfish.jersey.client.ClientConfig config = new org.glassfish.jersey.client.ClientConfig();")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("config.property(org.glassfish.jersey.apache.connector.ApacheClientProperties.CONNECTION_MANAGER, this.connectionManager);")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("config.connectorProvider(new org.glassfish.jersey.apache.connector.ApacheConnectorProvider());")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("if (this.chunkSize > 0) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("config.property(" + CLIENT_PROPERTIES + ".REQUEST_ENTITY_PROCESSING, " + ENTITY_PROCESSING + ".CHUNKED);")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("config.property(" + CLIENT_PROPERTIES + ".CHUNKED_ENCODING_SIZE, this.chunkSize);")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("} else {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("config.property(" + CLIENT_PROPERTIES + ".REQUEST_ENTITY_PROCESSING, " + ENTITY_PROCESSING + ".BUFFERED);")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("return javax.ws.rs.client.ClientBuilder.newClient(config);")
+			.toString());
+		
+		this.clazz.addMethod(method);
+	}
+	
+	private void addScheduleEvictionMethod() {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName("scheduleEviction");
+		method.setVisibility(Visibility.PRIVATE);
+		method.setBody(new StringBuilder()
+			.append("final " + CONNECTION_MANAGER_TYPE + " manager = this.connectionManager;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("final long timeout = this.idleConnectionTimeout;")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("this.evictionExecutor = java.util.concurrent.Executors.newSingleThreadScheduledExecutor(this.createThreadFactory(\"" +
+					this.clazz.getClassName() + "-eviction\"));")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("this.evictionExecutor.scheduleWithFixedDelay(new Runnable() {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("public void run() {")
+			.append("\n" + CodeBuilderHelper.tabulation(4))
+			.append("manager.closeExpiredConnections();")
+			.append("\n" + CodeBuilderHelper.tabulation(4))
+			.append("manager.closeIdleConnections(timeout, " + MILLISECONDS + ");")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("}")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}, timeout, timeout, " + MILLISECONDS + ");")
+			.toString());
+		
+		this.clazz.addMethod(method);
+	}
+	
+	private void addGetExecutorMethod() {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName("getExecutor");
+		method.setVisibility(Visibility.PUBLIC);
+		method.setReturnType(EXECUTOR_TYPE);
+		method.setBody(new StringBuilder()
+			.append(EXECUTOR_TYPE + " current = this.executor;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("if (current == null) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("current = this.defaultExecutor;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("if (current != null) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("return current;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("synchronized (this) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("if (this.defaultExecutor == null) {")
+			.append("\n" + CodeBuilderHelper.tabulation(4))
+			.append("this.defaultExecutor = java.util.concurrent.Executors.newCachedThreadPool(this.createThreadFactory(\"" +
+					this.clazz.getClassName() + "-async\"));")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("}")
+			.append("\n\n" + CodeBuilderHelper.tabulation(3))
+			.append("return this.defaultExecutor;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.toString());
+		
+		this.clazz.addMethod(method);
+	}
+	
+	private void addCreateThreadFactoryMethod() {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName("createThreadFactory");
+		method.setVisibility(Visibility.PRIVATE);
+		method.setReturnType(THREAD_FACTORY_TYPE);
+		method.setBody(new StringBuilder()
+			.append("return new " + THREAD_FACTORY_TYPE + "() {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("public Thread newThread(Runnable runnable) {")
+			.append("\n" + CodeBuilderHelper.tabulation(4))
+			.append("Thread thread = new Thread(runnable, name);")
+			.append("\n" + CodeBuilderHelper.tabulation(4))
+			.append("thread.setDaemon(true);")
+			.append("\n" + CodeBuilderHelper.tabulation(4))
+			.append("return thread;")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("}")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("};")
+			.toString());
+		
+		FieldMeta name = new FieldMeta();
+		name.setName("name");
+		name.setType(String.class.getName());
+		name.setFinalField(true);
+		method.addParameter(name);
+		
+		this.clazz.addMethod(method);
+	}
+	
+	private void addCloseMethod() {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName("close");
+		method.setVisibility(Visibility.PUBLIC);
+		method.setBody(new StringBuilder()
+			.append("if (this.client != null) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("this.client.close();")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("this.client = null;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("if (this.evictionExecutor != null) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("this.evictionExecutor.shutdownNow();")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("this.evictionExecutor = null;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("if (this.defaultExecutor != null) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("this.defaultExecutor.shutdown();")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("this.defaultExecutor = null;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("if (this.connectionManager != null) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("this.connectionManager.shutdown();")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("this.connectionManager = null;")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.toString());
+		
+		this.clazz.addMethod(method);
+	}
+	
+	public ClassMeta getClazz() {
+		return clazz;
+	}
+	
+	public ClientContextBuilder withClazz(ClassMeta clazz) {
+		this.clazz = clazz;
+		return this;
+	}
+}
@@ -24,6 +24,8 @@ public final class CodeBuilder {
 			case SERVICE_FETCH_INTERFACE : return (T) new ServiceFetchInterfaceBuilder();
 			case SERVICE_PARAMETERS_INTERFACE : return (T) new ServiceParametersInterfaceBuilder();
 			case EAGER_DATA_LIST : return (T) new EagerDataListBuilder();
+			case CLIENT_CONTEXT : return (T) new ClientContextBuilder();
+			case JSON_CONTEXT : return (T) new JsonContextBuilder();
 			default : return null;
 		}
 	}
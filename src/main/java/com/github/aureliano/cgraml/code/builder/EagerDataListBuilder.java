@@ -1,11 +1,12 @@
 package com.github.aureliano.cgraml.code.builder;
 
-import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
 import com.github.aureliano.cgraml.code.gen.ServiceFetchInterfaceGenerator;
 import com.github.aureliano.cgraml.code.meta.ClassMeta;
 import com.github.aureliano.cgraml.code.meta.FieldMeta;
@@ -21,6 +22,7 @@ import com.sun.codemodel.JMod;
 public class EagerDataListBuilder implements IBuilder {
 
 	private ClassMeta clazz;
+	private GenerationContext context;
 	
 	public EagerDataListBuilder() {
 		super();
@@ -33,6 +35,8 @@ public class EagerDataListBuilder implements IBuilder {
 			.append("Generated by cgraml-maven-plugin.")
 			.append("\n\n")
 			.append("Eager data list which under iteration fetch data dynamically.\n")
+			.append("Pages are fetched on the thread reading the list, so it is not thread-safe. fetchAll() fetches every remaining page\n")
+			.append("and returns a plain list, which is what the asynchronous fetch methods of ApiMapService return.\n")
 			.append("WARNING! Despite it extends ArrayList you mustn't use it by yourself. If you keep on this you're on your own...")
 			.toString();
 		
@@ -48,6 +52,7 @@ public class EagerDataListBuilder implements IBuilder {
 		
 		this.addSizeMethod();
 		this.addGetMethod();
+		this.addFetchAllMethod();
 	
 		return this;
 	}
@@ -59,6 +64,13 @@ public class EagerDataListBuilder implements IBuilder {
 		return this;
 	}
 	
+	@SuppressWarnings("unchecked")
+	@Override
+	public EagerDataListBuilder withContext(GenerationContext context) {
+		this.context = context;
+		return this;
+	}
+	
 	private void buildJavaClass() {
 		try {
 			JCodeModel codeModel = new JCodeModel();
@@ -80,7 +92,7 @@ public class EagerDataListBuilder implements IBuilder {
 			this.appendClassAttributes(codeModel, definedClass);
 			this.appendClassMethods(codeModel, definedClass);
 			
-			codeModel.build(new File("src/main/java"));
+			codeModel.build(this.context.getCodeWriter());
 		} catch (Exception ex) {
 			throw new RuntimeException(ex);
 		}
@@ -103,13 +115,13 @@ public class EagerDataListBuilder implements IBuilder {
 
 	private void appendClassMethods(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (MethodMeta method : this.clazz.getMethods()) {
-			CodeBuilderHelper.addMethodToClass(codeModel, definedClass, method);
+			CodeBuilderHelper.addMethodToClass(this.context.getTypeRegistry(), codeModel, definedClass, method);
 		}
 	}
 
 	private void appendClassAttributes(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (FieldMeta field : this.clazz.getFields()) {
-			CodeBuilderHelper.addAttributeToClass(codeModel, definedClass, field);
+			CodeBuilderHelper.addAttributeToClass(this.context.getTypeRegistry(), codeModel, definedClass, field);
 		}
 	}
 
@@ -168,6 +180,26 @@ public class EagerDataListBuilder implements IBuilder {
 			.toString();
 	}
 
+	private void addFetchAllMethod() {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName("fetchAll");
+		method.setVisibility(Visibility.PUBLIC);
+		method.setReturnType(List.class.getName());
+		method.setGenericReturnType("E");
+		method.setBody(new StringBuilder()
+			.append("while (super.size() < this.virtualSize) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("this.get(super.size());")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("return new java.util.ArrayList<E>(this);")
+			.toString());
+		
+		this.clazz.addMethod(method);
+	}
+
 	private void addSerialVersionNumberField() {
 		FieldMeta field = new FieldMeta();
 		
@@ -1,6 +1,7 @@
 package com.github.aureliano.cgraml.code.builder;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
 
 public interface IBuilder {
 	
@@ -8,5 +9,7 @@ public interface IBuilder {
 
 	public abstract <T extends IBuilder> T build();
 	
+	public abstract <T extends IBuilder> T withContext(GenerationContext context);
+	
 	public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 }
\ No newline at end of file
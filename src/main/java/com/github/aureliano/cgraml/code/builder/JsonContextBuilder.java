@@ -0,0 +1,292 @@
+package com.github.aureliano.cgraml.code.builder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
+import com.github.aureliano.cgraml.code.meta.ClassMeta;
+import com.github.aureliano.cgraml.code.meta.FieldMeta;
+import com.github.aureliano.cgraml.code.meta.MethodMeta;
+import com.github.aureliano.cgraml.code.meta.Visibility;
+import com.github.aureliano.cgraml.helper.CodeBuilderHelper;
+import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+
+/**
+ * Builds the class sharing one JSON object mapper between all generated services, along with the readers and writers
+ * of every type they map. Readers and writers keep the deserializers and serializers Jackson built for their type, so
+ * they are created once per type instead of once per request.
+ */
+public class JsonContextBuilder implements IBuilder {
+	
+	public static final String MAPPER_TYPE = "com.fasterxml.jackson.databind.ObjectMapper";
+	public static final String READER_TYPE = "com.fasterxml.jackson.databind.ObjectReader";
+	public static final String WRITER_TYPE = "com.fasterxml.jackson.databind.ObjectWriter";
+	public static final String GENERATOR_TYPE = "com.fasterxml.jackson.core.JsonGenerator";
+	
+	private ClassMeta clazz;
+	private GenerationContext context;
+	
+	public JsonContextBuilder() {
+		super();
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public JsonContextBuilder parse(String pkg, String entity, Object resource) {
+		String javaDoc = new StringBuilder()
+			.append("Generated by cgraml-maven-plugin.")
+			.append("\n\n")
+			.append("Shares one JSON object mapper and caches the reader and writer of each type, which keep the deserializers\n")
+			.append("and serializers already built for that type. All of them are thread-safe.")
+			.toString();
+		
+		this.clazz = new ClassMeta()
+			.withPackageName(pkg)
+			.withJavaDoc(javaDoc)
+			.withClassName(StringUtils.capitalize(entity));
+		
+		this.addMapperField();
+		this.addCreateMapperMethod();
+		this.addGetMapperMethod();
+		this.addCachedInstanceMethod("reader", READER_TYPE, "readers", "mapper.reader(type)");
+		this.addCachedInstanceMethod("writer", WRITER_TYPE, "writers", "mapper.writerWithType(type)");
+		this.addReadMethod();
+		this.addWriteMethod();
+		
+		return this;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public JsonContextBuilder build() {
+		this.buildJavaClass();
+		return this;
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public JsonContextBuilder withContext(GenerationContext context) {
+		this.context = context;
+		return this;
+	}
+	
+	private void buildJavaClass() {
+		try {
+			JCodeModel codeModel = new JCodeModel();
+			JDefinedClass definedClass = codeModel._class(JMod.PUBLIC | JMod.FINAL, this.clazz.getCanonicalClassName(), ClassType.CLASS);
+			definedClass.javadoc().append(this.clazz.getJavaDoc());
+			
+			definedClass.constructor(JMod.PRIVATE).body().directStatement("super();");
+			
+			this.appendClassAttributes(codeModel, definedClass);
+			this.appendCacheAttribute(codeModel, definedClass, "readers", READER_TYPE);
+			this.appendCacheAttribute(codeModel, definedClass, "writers", WRITER_TYPE);
+			this.appendClassMethods(codeModel, definedClass);
+			
+			codeModel.build(this.context.getCodeWriter());
+		} catch (Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	private void appendClassAttributes(JCodeModel codeModel, JDefinedClass definedClass) {
+		for (FieldMeta field : this.clazz.getFields()) {
+			CodeBuilderHelper.addAttributeToClass(this.context.getTypeRegistry(), codeModel, definedClass, field);
+		}
+	}
+	
+	private void appendCacheAttribute(JCodeModel codeModel, JDefinedClass definedClass, String name, String valueType) {
+		JClass keyType = codeModel.ref(Class.class).narrow(codeModel.directClass("?"));
+		JClass mapType = codeModel.ref(ConcurrentMap.class).narrow(keyType, codeModel.directClass(valueType));
+		
+		definedClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, mapType, name,
+				JExpr.direct("new java.util.concurrent.ConcurrentHashMap<Class<?>, " + valueType + ">()"));
+	}
+	
+	private void appendClassMethods(JCodeModel codeModel, JDefinedClass definedClass) {
+		for (MethodMeta method : this.clazz.getMethods()) {
+			JMethod jm = CodeBuilderHelper.addMethodToClass(this.context.getTypeRegistry(), codeModel, definedClass, method);
+			if ("read".equals(method.getName())) {
+				jm.generify("T");
+			}
+			
+			if ("read".equals(method.getName()) || "write".equals(method.getName())) {
+				jm._throws(IOException.class);
+			}
+		}
+	}
+	
+	private void addMapperField() {
+		FieldMeta field = new FieldMeta();
+		
+		field.setName("mapper");
+		field.setVisibility(Visibility.PRIVATE);
+		field.setStaticField(true);
+		field.setFinalField(true);
+		field.setType(MAPPER_TYPE);
+		field.setInitValue("createMapper()");
+		
+		this.clazz.addField(field);
+	}
+	
+	private void addCreateMapperMethod() {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName("createMapper");
+		method.setVisibility(Visibility.PRIVATE);
+		method.setStaticMethod(true);
+		method.setReturnType(MAPPER_TYPE);
+		method.setBody("return new " + MAPPER_TYPE + "();");
+		
+		this.clazz.addMethod(method);
+	}
+	
+	private void addGetMapperMethod() {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName("getMapper");
+		method.setVisibility(Visibility.PUBLIC);
+		method.setStaticMethod(true);
+		method.setReturnType(MAPPER_TYPE);
+		method.setBody("return mapper;");
+		
+		this.clazz.addMethod(method);
+	}
+	
+	private void addCachedInstanceMethod(String name, String returnType, String cache, String creation) {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName(name);
+		method.setVisibility(Visibility.PUBLIC);
+		method.setStaticMethod(true);
+		method.setReturnType(returnType);
+		method.setBody(new StringBuilder()
+			.append(returnType + " " + name + " = " + cache + ".get(type);")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("if (" + name + " == null) {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append(name + " = " + creation + ";")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append(returnType + " current = " + cache + ".putIfAbsent(type, " + name + ");")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("if (current != null) {")
+			.append("\n" + CodeBuilderHelper.tabulation(4))
+			.append(name + " = current;")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("}")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("return " + name + ";")
+			.toString());
+		
+		FieldMeta param = new FieldMeta();
+		param.setName("type");
+		param.setType(Class.class.getName());
+		param.setGenericType("?");
+		method.addParameter(param);
+		
+		this.clazz.addMethod(method);
+	}
+	
+	/**
+	 * Deserializes straight from a response stream, with no intermediate string, and closes the stream whatever
+	 * happens so the pooled connection it reads from is released.
+	 */
+	private void addReadMethod() {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName("read");
+		method.setVisibility(Visibility.PUBLIC);
+		method.setStaticMethod(true);
+		method.setReturnType("T");
+		method.setBody(new StringBuilder()
+			.append("try {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("return reader(type).readValue(stream);")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("} finally {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("stream.close();")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.toString());
+		
+		FieldMeta type = new FieldMeta();
+		type.setName("type");
+		type.setType(Class.class.getName());
+		type.setGenericType("T");
+		method.addParameter(type);
+		
+		FieldMeta stream = new FieldMeta();
+		stream.setName("stream");
+		stream.setType(InputStream.class.getName());
+		method.addParameter(stream);
+		
+		this.clazz.addMethod(method);
+	}
+	
+	/**
+	 * Serializes straight to a request stream. Closing the generator flushes it and releases its buffers but leaves the
+	 * stream open, since the stream belongs to the HTTP client.
+	 */
+	private void addWriteMethod() {
+		MethodMeta method = new MethodMeta();
+		
+		method.setName("write");
+		method.setVisibility(Visibility.PUBLIC);
+		method.setStaticMethod(true);
+		method.setBody(new StringBuilder()
+			.append(GENERATOR_TYPE + " generator = mapper.getFactory().createGenerator(stream);")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("generator.disable(" + GENERATOR_TYPE + ".Feature.AUTO_CLOSE_TARGET);")
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
+			.append("try {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("writer(type).writeValue(generator, value);")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("} finally {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("generator.close();")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("}")
+			.toString());
+		
+		FieldMeta type = new FieldMeta();
+		type.setName("type");
+		type.setType(Class.class.getName());
+		type.setGenericType("?");
+		method.addParameter(type);
+		
+		FieldMeta value = new FieldMeta();
+		value.setName("value");
+		value.setType(Object.class.getName());
+		method.addParameter(value);
+		
+		FieldMeta stream = new FieldMeta();
+		stream.setName("stream");
+		stream.setType(OutputStream.class.getName());
+		method.addParameter(stream);
+		
+		this.clazz.addMethod(method);
+	}
+	
+	public ClassMeta getClazz() {
+		return clazz;
+	}
+	
+	public JsonContextBuilder withClazz(ClassMeta clazz) {
+		this.clazz = clazz;
+		return this;
+	}
+}
@@ -1,17 +1,14 @@
 package com.github.aureliano.cgraml.code.builder;
 
-import java.io.File;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
 
 import com.github.aureliano.cgraml.code.gen.EagerDataListGenerator;
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
 import com.github.aureliano.cgraml.code.gen.ServiceFetchInterfaceGenerator;
 import com.github.aureliano.cgraml.code.meta.ClassMeta;
 import com.github.aureliano.cgraml.code.meta.FieldMeta;
@@ -24,10 +21,12 @@ import com.sun.codemodel.JDefinedClass;
 public class ModelBuilder implements IBuilder {
 
 	private ClassMeta clazz;
-	private static final Set<String> GENERATED_CLASSES = new HashSet<String>();
+	private GenerationContext context;
+	private Map<String, String> linkedData;
 	
 	protected ModelBuilder() {
 		super();
+		this.linkedData = new LinkedHashMap<String, String>();
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -47,7 +46,7 @@ public class ModelBuilder implements IBuilder {
 			.withJavaDoc(javaDoc)
 			.withClassName(StringUtils.capitalize(entity));
 		
-		if (GENERATED_CLASSES.contains(this.clazz.getCanonicalClassName())) {
+		if (this.context.isClassGenerated(this.clazz.getCanonicalClassName())) {
 			throw new IllegalArgumentException("Class " + this.clazz.getCanonicalClassName() + " was already generated before. Skipping!");
 		}
 		
@@ -80,7 +79,7 @@ public class ModelBuilder implements IBuilder {
 			this.addInheritedMethodsImplementation(collectionSchemaField);
 		}
 
-		GENERATED_CLASSES.add(this.clazz.getCanonicalClassName());
+		this.context.addGeneratedClass(this.clazz.getCanonicalClassName());
 		return this;
 	}
 
@@ -91,6 +90,13 @@ public class ModelBuilder implements IBuilder {
 		return this;
 	}
 	
+	@SuppressWarnings("unchecked")
+	@Override
+	public ModelBuilder withContext(GenerationContext context) {
+		this.context = context;
+		return this;
+	}
+	
 	private void buildJavaClass() {
 		try {
 			JCodeModel codeModel = new JCodeModel();
@@ -104,7 +110,7 @@ public class ModelBuilder implements IBuilder {
 			this.appendClassAttributes(codeModel, definedClass);
 			this.appendClassMethods(codeModel, definedClass);
 			
-			codeModel.build(new File("src/main/java"));
+			codeModel.build(this.context.getCodeWriter());
 		} catch (Exception ex) {
 			throw new RuntimeException(ex);
 		}
@@ -146,13 +152,13 @@ public class ModelBuilder implements IBuilder {
 	
 	private void appendClassMethods(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (MethodMeta method : this.clazz.getMethods()) {
-			CodeBuilderHelper.addMethodToClass(codeModel, definedClass, method);
+			CodeBuilderHelper.addMethodToClass(this.context.getTypeRegistry(), codeModel, definedClass, method);
 		}
 	}
 
 	private void appendClassAttributes(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (FieldMeta field : this.clazz.getFields()) {
-			CodeBuilderHelper.addAttributeToClass(codeModel, definedClass, field);
+			CodeBuilderHelper.addAttributeToClass(this.context.getTypeRegistry(), codeModel, definedClass, field);
 		}
 	}
 	
@@ -168,6 +174,7 @@ public class ModelBuilder implements IBuilder {
 			this.validateLinkedDataMap(linkedData);
 			
 			List<String> serviceNames = (List<String>) linkedData.get("path");
+			this.linkedData.put(StringUtils.join(serviceNames, ""), linkedData.get("schema").toString());
 			
 			MethodMeta method = this.createLinkedDataMethodMeta(key, linkedData);
 			String body = method.getBody();
@@ -308,7 +315,7 @@ public class ModelBuilder implements IBuilder {
 
 	private Map<?, ?> parseJsonString(String json) {
 		try {
-			return OBJECT_MAPPER.readValue(json, HashMap.class);
+			return OBJECT_MAPPER.readValue(json, LinkedHashMap.class);
 		} catch (Exception ex) {
 			throw new RuntimeException(ex);
 		}
@@ -328,6 +335,13 @@ public class ModelBuilder implements IBuilder {
 		return clazz;
 	}
 	
+	/**
+	 * @return The paths of the $linkedData methods of the model mapped to the schemas they return.
+	 */
+	public Map<String, String> getLinkedData() {
+		return this.linkedData;
+	}
+	
 	public ModelBuilder withClazz(ClassMeta clazz) {
 		this.clazz = clazz;
 		return this;
@@ -1,8 +1,8 @@
 package com.github.aureliano.cgraml.code.builder;
 
-import java.io.File;
 import java.util.List;
 
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
 import com.github.aureliano.cgraml.code.meta.ClassMeta;
 import com.github.aureliano.cgraml.code.meta.MethodMeta;
 import com.github.aureliano.cgraml.code.meta.Visibility;
@@ -14,6 +14,7 @@ import com.sun.codemodel.JDefinedClass;
 public class ModelCollectionSchemaInterfaceBuilder implements IBuilder {
 
 	private ClassMeta clazz;
+	private GenerationContext context;
 	private static final MethodMeta[] ABSTRACT_METHODS;
 	
 	static {
@@ -51,6 +52,13 @@ public class ModelCollectionSchemaInterfaceBuilder implements IBuilder {
 		return this;
 	}
 	
+	@SuppressWarnings("unchecked")
+	@Override
+	public ModelCollectionSchemaInterfaceBuilder withContext(GenerationContext context) {
+		this.context = context;
+		return this;
+	}
+	
 	private void buildJavaClass() {
 		try {
 			JCodeModel codeModel = new JCodeModel();
@@ -60,7 +68,7 @@ public class ModelCollectionSchemaInterfaceBuilder implements IBuilder {
 			
 			this.appendClassMethods(codeModel, definedClass);
 			
-			codeModel.build(new File("src/main/java"));
+			codeModel.build(this.context.getCodeWriter());
 		} catch (Exception ex) {
 			throw new RuntimeException(ex);
 		}
@@ -68,7 +76,7 @@ public class ModelCollectionSchemaInterfaceBuilder implements IBuilder {
 
 	private void appendClassMethods(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (MethodMeta method : this.clazz.getMethods()) {
-			CodeBuilderHelper.addMethodToClass(codeModel, definedClass, method);
+			CodeBuilderHelper.addMethodToClass(this.context.getTypeRegistry(), codeModel, definedClass, method);
 		}
 	}
 
@@ -1,7 +1,6 @@
 package com.github.aureliano.cgraml.code.builder;
 
-import java.io.File;
-
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
 import com.github.aureliano.cgraml.code.meta.ClassMeta;
 import com.sun.codemodel.ClassType;
 import com.sun.codemodel.JCodeModel;
@@ -10,6 +9,7 @@ import com.sun.codemodel.JDefinedClass;
 public class ModelSchemaInterfaceBuilder implements IBuilder {
 
 	private ClassMeta clazz;
+	private GenerationContext context;
 	
 	public ModelSchemaInterfaceBuilder() {
 		super();
@@ -35,13 +35,20 @@ public class ModelSchemaInterfaceBuilder implements IBuilder {
 		return this;
 	}
 	
+	@SuppressWarnings("unchecked")
+	@Override
+	public ModelSchemaInterfaceBuilder withContext(GenerationContext context) {
+		this.context = context;
+		return this;
+	}
+	
 	private void buildJavaClass() {
 		try {
 			JCodeModel codeModel = new JCodeModel();
 			JDefinedClass definedClass = codeModel._class(this.clazz.getCanonicalClassName(), ClassType.INTERFACE);
 			definedClass.javadoc().append(this.clazz.getJavaDoc());
 			
-			codeModel.build(new File("src/main/java"));
+			codeModel.build(this.context.getCodeWriter());
 		} catch (Exception ex) {
 			throw new RuntimeException(ex);
 		}
@@ -1,15 +1,14 @@
 package com.github.aureliano.cgraml.code.builder;
 
-import java.io.File;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
+import com.github.aureliano.cgraml.code.gen.JsonContextGenerator;
 import com.github.aureliano.cgraml.code.gen.ServiceFetchInterfaceGenerator;
 import com.github.aureliano.cgraml.code.gen.ServiceParametersInterfaceGenerator;
 import com.github.aureliano.cgraml.code.meta.ActionMeta;
@@ -26,8 +25,8 @@ import com.sun.codemodel.JMethod;
 public class ServiceBuilder implements IBuilder {
 
 	private ClassMeta clazz;
+	private GenerationContext context;
 	private ServiceMeta serviceMeta;
-	private static final Set<String> GENERATED_CLASSES = new HashSet<String>();
 	
 	public ServiceBuilder() {
 		super();
@@ -43,7 +42,7 @@ public class ServiceBuilder implements IBuilder {
 			.withJavaDoc("Generated by cgraml-maven-plugin.")
 			.withClassName(CodeBuilderHelper.sanitizedTypeName(this.serviceMeta.getUri()) + "Service");
 		
-		if (GENERATED_CLASSES.contains(this.clazz.getCanonicalClassName())) {
+		if (this.context.isClassGenerated(this.clazz.getCanonicalClassName())) {
 			throw new IllegalArgumentException("Class " + this.clazz.getCanonicalClassName() + " was already generated before. Skipping!");
 		}
 		
@@ -59,7 +58,7 @@ public class ServiceBuilder implements IBuilder {
 			this.addInheritedMethodsImplementation();
 		}
 		
-		GENERATED_CLASSES.add(this.clazz.getCanonicalClassName());
+		this.context.addGeneratedClass(this.clazz.getCanonicalClassName());
 		return this;
 	}
 
@@ -70,6 +69,13 @@ public class ServiceBuilder implements IBuilder {
 		return this;
 	}
 	
+	@SuppressWarnings("unchecked")
+	@Override
+	public ServiceBuilder withContext(GenerationContext context) {
+		this.context = context;
+		return this;
+	}
+	
 	private void buildJavaClass() {
 		try {
 			JCodeModel codeModel = new JCodeModel();
@@ -88,7 +94,7 @@ public class ServiceBuilder implements IBuilder {
 			this.appendClassAttributes(codeModel, definedClass);
 			this.appendClassMethods(codeModel, definedClass);
 			
-			codeModel.build(new File("src/main/java"));
+			codeModel.build(this.context.getCodeWriter());
 		} catch (Exception ex) {
 			throw new RuntimeException(ex);
 		}
@@ -96,13 +102,13 @@ public class ServiceBuilder implements IBuilder {
 
 	private void appendClassAttributes(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (FieldMeta field : this.clazz.getFields()) {
-			CodeBuilderHelper.addAttributeToClass(codeModel, definedClass, field);
+			CodeBuilderHelper.addAttributeToClass(this.context.getTypeRegistry(), codeModel, definedClass, field);
 		}
 	}
 
 	private void appendClassMethods(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (MethodMeta method : this.clazz.getMethods()) {
-			CodeBuilderHelper.addMethodToClass(codeModel, definedClass, method);
+			CodeBuilderHelper.addMethodToClass(this.context.getTypeRegistry(), codeModel, definedClass, method);
 		}
 	}
 	
@@ -253,7 +259,7 @@ public class ServiceBuilder implements IBuilder {
 		for (ActionMeta action : service.getActions()) {
 			MethodMeta method = new MethodMeta();
 			method.setName("http" + StringUtils.capitalize(action.getMethod().name().toLowerCase()));
-			boolean javaType = CodeBuilderHelper.stringToClass(service.getType()) != null;
+			boolean javaType = this.context.getTypeRegistry().isJavaType(service.getType());
 			
 			if (javaType) {
 				method.setReturnType(service.getType());
@@ -271,6 +277,7 @@ public class ServiceBuilder implements IBuilder {
 				FieldMeta param = new FieldMeta();
 				param.setName("entityResource");
 				param.setType(method.getReturnType());
+				param.setFinalField(true);
 				
 				method.addParameter(param);
 			}
@@ -279,9 +286,20 @@ public class ServiceBuilder implements IBuilder {
 			method.setBody(this.constructBody(action, method));
 			
 			this.clazz.addMethod(method);
+			if (this.isSupportedHttpMethod(method)) {
+				String executor = "ApiMapService.instance().getClientContext().getExecutor()";
+				String receiver = this.clazz.getClassName() + ".this";
+				this.clazz.addMethod(CodeBuilderHelper.createAsyncMethod(method, executor, receiver));
+				this.clazz.addMethod(CodeBuilderHelper.createAsyncCallbackMethod(method, executor, receiver));
+			}
 		}
 	}
 	
+	private boolean isSupportedHttpMethod(MethodMeta method) {
+		return method.getName().equals("httpGet") || method.getName().equals("httpPost") ||
+				method.getName().equals("httpPut") || method.getName().equals("httpDelete");
+	}
+	
 	private String constructBody(ActionMeta action, MethodMeta method) {
 		if (method.getName().equals("httpGet")) {
 			return this.methodGetBody(action, method);
@@ -329,9 +347,7 @@ public class ServiceBuilder implements IBuilder {
 		}
 		
 		builder
-			.append("javax.ws.rs.client.Client client = javax.ws.rs.client.ClientBuilder.newClient();")
-			.append("\n" + CodeBuilderHelper.tabulation(2))
-			.append("javax.ws.rs.client.WebTarget target = client.target(ApiMapService.instance().getBaseUri())")
+			.append(this.targetDeclaration())
 			.append(".path(this.url)");
 		
 		List<FieldMeta> parameters = this.classAttributes();
@@ -345,13 +361,11 @@ public class ServiceBuilder implements IBuilder {
 		builder
 			.append(";")		
 			.append("\n\n" + CodeBuilderHelper.tabulation(2))
-			.append("String json = target.request(javax.ws.rs.core.MediaType.APPLICATION_JSON).get(String.class);")
+			.append("java.io.InputStream stream = target.request(javax.ws.rs.core.MediaType.APPLICATION_JSON).get(java.io.InputStream.class);")
 			.append("\n\n" + CodeBuilderHelper.tabulation(2))
-			.append("com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();")
-			.append("\n" + CodeBuilderHelper.tabulation(2))
 			.append("try {")
 			.append("\n" + CodeBuilderHelper.tabulation(3))
-			.append("return mapper.readValue(json, " + method.getReturnType() + ".class);")
+			.append(this.deserializeResponse(method))
 			.append("\n" + CodeBuilderHelper.tabulation(2))
 			.append("} catch (Exception ex) {")
 			.append("\n" + CodeBuilderHelper.tabulation(3))
@@ -364,20 +378,16 @@ public class ServiceBuilder implements IBuilder {
 	
 	private String methodPostBody(MethodMeta method) {
 		return new StringBuilder()
-			.append("javax.ws.rs.client.Client client = javax.ws.rs.client.ClientBuilder.newClient();")
-			.append("\n" + CodeBuilderHelper.tabulation(2))
-			.append("javax.ws.rs.client.WebTarget target = client.target(ApiMapService.instance().getBaseUri())")
+			.append(this.targetDeclaration())
 			.append(".path(this.url);")
 			.append("\n" + CodeBuilderHelper.tabulation(2))
-			.append("com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();")
-			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append(this.streamingEntityDeclaration(method))
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
 			.append("try {")
 			.append("\n" + CodeBuilderHelper.tabulation(3))
-			.append("String json = mapper.writeValueAsString(" + method.getParameters().get(0).getName() + ");")
-			.append("\n" + CodeBuilderHelper.tabulation(3))
-			.append("json = target.request(javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE).post(javax.ws.rs.client.Entity.entity(json, javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE), String.class);")
+			.append("java.io.InputStream stream = target.request(javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE).post(javax.ws.rs.client.Entity.entity(entity, javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE), java.io.InputStream.class);")
 			.append("\n" + CodeBuilderHelper.tabulation(3))
-			.append("return mapper.readValue(json, " + method.getReturnType() + ".class);")
+			.append(this.deserializeResponse(method))
 			.append("\n" + CodeBuilderHelper.tabulation(2))
 			.append("} catch (Exception ex) {")
 			.append("\n" + CodeBuilderHelper.tabulation(3))
@@ -389,20 +399,16 @@ public class ServiceBuilder implements IBuilder {
 	
 	private String methodPutBody(MethodMeta method) {
 		return new StringBuilder()
-			.append("javax.ws.rs.client.Client client = javax.ws.rs.client.ClientBuilder.newClient();")
-			.append("\n" + CodeBuilderHelper.tabulation(2))
-			.append("javax.ws.rs.client.WebTarget target = client.target(ApiMapService.instance().getBaseUri())")
+			.append(this.targetDeclaration())
 			.append(".path(this.url);")
 			.append("\n" + CodeBuilderHelper.tabulation(2))
-			.append("com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();")
-			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append(this.streamingEntityDeclaration(method))
+			.append("\n\n" + CodeBuilderHelper.tabulation(2))
 			.append("try {")
 			.append("\n" + CodeBuilderHelper.tabulation(3))
-			.append("String json = mapper.writeValueAsString(" + method.getParameters().get(0).getName() + ");")
-			.append("\n" + CodeBuilderHelper.tabulation(3))
-			.append("json = target.request(javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE).put(javax.ws.rs.client.Entity.entity(json, javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE), String.class);")
+			.append("java.io.InputStream stream = target.request(javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE).put(javax.ws.rs.client.Entity.entity(entity, javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE), java.io.InputStream.class);")
 			.append("\n" + CodeBuilderHelper.tabulation(3))
-			.append("return mapper.readValue(json, " + method.getReturnType() + ".class);")
+			.append(this.deserializeResponse(method))
 			.append("\n" + CodeBuilderHelper.tabulation(2))
 			.append("} catch (Exception ex) {")
 			.append("\n" + CodeBuilderHelper.tabulation(3))
@@ -414,15 +420,47 @@ public class ServiceBuilder implements IBuilder {
 	
 	private String methodDeleteBody(MethodMeta method) {
 		return new StringBuilder()
-			.append("javax.ws.rs.client.Client client = javax.ws.rs.client.ClientBuilder.newClient();")
-			.append("\n" + CodeBuilderHelper.tabulation(2))
-			.append("javax.ws.rs.client.WebTarget target = client.target(ApiMapService.instance().getBaseUri())")
+			.append(this.targetDeclaration())
 			.append(".path(this.url);")
 			.append("\n" + CodeBuilderHelper.tabulation(2))
-			.append("target.request().delete();")
+			.append("target.request().delete().close();")
 			.toString();
 	}
 	
+	/**
+	 * Declares the request entity, which serializes the parameter while it is sent instead of building the whole JSON
+	 * document first.
+	 */
+	private String streamingEntityDeclaration(MethodMeta method) {
+		FieldMeta parameter = method.getParameters().get(0);
+		return new StringBuilder()
+			.append("javax.ws.rs.core.StreamingOutput entity = new javax.ws.rs.core.StreamingOutput() {")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("public void write(java.io.OutputStream output) throws java.io.IOException {")
+			.append("\n" + CodeBuilderHelper.tabulation(4))
+			.append(JsonContextGenerator.CLASS_NAME + ".write(" + parameter.getType() + ".class, " + parameter.getName() + ", output);")
+			.append("\n" + CodeBuilderHelper.tabulation(3))
+			.append("}")
+			.append("\n" + CodeBuilderHelper.tabulation(2))
+			.append("};")
+			.toString();
+	}
+	
+	/**
+	 * Decodes the response entity as it is read from the connection, which is released once the stream is closed.
+	 */
+	private String deserializeResponse(MethodMeta method) {
+		return "return " + JsonContextGenerator.CLASS_NAME + ".read(" + method.getReturnType() + ".class, stream);";
+	}
+	
+	/**
+	 * Declares the target of the request on the HTTP client shared by all services, which is owned by the API map.
+	 */
+	private String targetDeclaration() {
+		return "javax.ws.rs.client.WebTarget target = ApiMapService.instance().getClientContext().getClient()" +
+				".target(ApiMapService.instance().getBaseUri())";
+	}
+	
 	private List<FieldMeta> classAttributes() {
 		List<FieldMeta> fields = new ArrayList<FieldMeta>();
 		
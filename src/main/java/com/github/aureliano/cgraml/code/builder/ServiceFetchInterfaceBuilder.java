@@ -1,7 +1,6 @@
 package com.github.aureliano.cgraml.code.builder;
 
-import java.io.File;
-
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
 import com.github.aureliano.cgraml.code.gen.ServiceFetchInterfaceGenerator;
 import com.github.aureliano.cgraml.code.gen.ServiceParametersInterfaceGenerator;
 import com.github.aureliano.cgraml.code.meta.ClassMeta;
@@ -17,6 +16,7 @@ import com.sun.codemodel.JDefinedClass;
 public class ServiceFetchInterfaceBuilder implements IBuilder {
 
 	private ClassMeta clazz;
+	private GenerationContext context;
 	private static final MethodMeta[] ABSTRACT_METHODS;
 	
 	static {
@@ -66,6 +66,13 @@ public class ServiceFetchInterfaceBuilder implements IBuilder {
 		return this;
 	}
 	
+	@SuppressWarnings("unchecked")
+	@Override
+	public ServiceFetchInterfaceBuilder withContext(GenerationContext context) {
+		this.context = context;
+		return this;
+	}
+	
 	private void buildJavaClass() {
 		try {
 			JCodeModel codeModel = new JCodeModel();
@@ -77,7 +84,7 @@ public class ServiceFetchInterfaceBuilder implements IBuilder {
 			
 			this.appendClassMethods(codeModel, definedClass);
 			
-			codeModel.build(new File("src/main/java"));
+			codeModel.build(this.context.getCodeWriter());
 		} catch (Exception ex) {
 			throw new RuntimeException(ex);
 		}
@@ -85,7 +92,7 @@ public class ServiceFetchInterfaceBuilder implements IBuilder {
 
 	private void appendClassMethods(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (MethodMeta method : this.clazz.getMethods()) {
-			CodeBuilderHelper.addMethodToClass(codeModel, definedClass, method);
+			CodeBuilderHelper.addMethodToClass(this.context.getTypeRegistry(), codeModel, definedClass, method);
 		}
 	}
 
@@ -1,9 +1,6 @@
 package com.github.aureliano.cgraml.code.builder;
 
-import java.io.File;
-import java.util.HashSet;
-import java.util.Set;
-
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
 import com.github.aureliano.cgraml.code.gen.ServiceParametersInterfaceGenerator;
 import com.github.aureliano.cgraml.code.meta.ActionMeta;
 import com.github.aureliano.cgraml.code.meta.ClassMeta;
@@ -18,7 +15,7 @@ import com.sun.codemodel.JDefinedClass;
 public class ServiceParametersBuilder implements IBuilder {
 
 	private ClassMeta clazz;
-	private static final Set<String> GENERATED_CLASSES = new HashSet<String>();
+	private GenerationContext context;
 	
 	public ServiceParametersBuilder() {
 		super();
@@ -34,7 +31,7 @@ public class ServiceParametersBuilder implements IBuilder {
 			.withJavaDoc("Generated by cgraml-maven-plugin.")
 			.withClassName(CodeBuilderHelper.sanitizedTypeName(service.getUri()) + "Parameters");
 	
-		if (GENERATED_CLASSES.contains(this.clazz.getCanonicalClassName())) {
+		if (this.context.isClassGenerated(this.clazz.getCanonicalClassName())) {
 			throw new IllegalArgumentException("Class " + this.clazz.getCanonicalClassName() + " was already generated before. Skipping!");
 		}
 		
@@ -52,7 +49,7 @@ public class ServiceParametersBuilder implements IBuilder {
 			this.addInheritedMethodsImplementation();
 		}
 
-		GENERATED_CLASSES.add(this.clazz.getCanonicalClassName());
+		this.context.addGeneratedClass(this.clazz.getCanonicalClassName());
 		return this;
 	}
 
@@ -63,6 +60,13 @@ public class ServiceParametersBuilder implements IBuilder {
 		return this;
 	}
 	
+	@SuppressWarnings("unchecked")
+	@Override
+	public ServiceParametersBuilder withContext(GenerationContext context) {
+		this.context = context;
+		return this;
+	}
+	
 	private void buildJavaClass() {
 		try {
 			JCodeModel codeModel = new JCodeModel();
@@ -76,7 +80,7 @@ public class ServiceParametersBuilder implements IBuilder {
 			this.appendClassAttributes(codeModel, definedClass);
 			this.appendClassMethods(codeModel, definedClass);
 			
-			codeModel.build(new File("src/main/java"));
+			codeModel.build(this.context.getCodeWriter());
 		} catch (Exception ex) {
 			throw new RuntimeException(ex);
 		}
@@ -98,13 +102,13 @@ public class ServiceParametersBuilder implements IBuilder {
 
 	private void appendClassAttributes(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (FieldMeta field : this.clazz.getFields()) {
-			CodeBuilderHelper.addAttributeToClass(codeModel, definedClass, field);
+			CodeBuilderHelper.addAttributeToClass(this.context.getTypeRegistry(), codeModel, definedClass, field);
 		}
 	}
 
 	private void appendClassMethods(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (MethodMeta method : this.clazz.getMethods()) {
-			CodeBuilderHelper.addMethodToClass(codeModel, definedClass, method);
+			CodeBuilderHelper.addMethodToClass(this.context.getTypeRegistry(), codeModel, definedClass, method);
 		}
 	}
 
@@ -129,7 +133,8 @@ public class ServiceParametersBuilder implements IBuilder {
 	}
 
 	private void addAttributesToClass(ActionMeta action) {
-		for (FieldMeta field : action.getParameters()) {
+		for (FieldMeta parameter : action.getParameters()) {
+			FieldMeta field = parameter.clone();
 			field.setVisibility(Visibility.PRIVATE);
 			this.clazz.addField(field);
 		}
@@ -1,7 +1,6 @@
 package com.github.aureliano.cgraml.code.builder;
 
-import java.io.File;
-
+import com.github.aureliano.cgraml.code.gen.GenerationContext;
 import com.github.aureliano.cgraml.code.gen.ServiceParametersInterfaceGenerator;
 import com.github.aureliano.cgraml.code.meta.ClassMeta;
 import com.github.aureliano.cgraml.code.meta.FieldMeta;
@@ -15,6 +14,7 @@ import com.sun.codemodel.JDefinedClass;
 public class ServiceParametersInterfaceBuilder implements IBuilder {
 	
 	private ClassMeta clazz;
+	private GenerationContext context;
 	private static final MethodMeta[] ABSTRACT_METHODS;
 	
 	static {
@@ -54,6 +54,13 @@ public class ServiceParametersInterfaceBuilder implements IBuilder {
 		return this;
 	}
 	
+	@SuppressWarnings("unchecked")
+	@Override
+	public ServiceParametersInterfaceBuilder withContext(GenerationContext context) {
+		this.context = context;
+		return this;
+	}
+	
 	private void buildJavaClass() {
 		try {
 			JCodeModel codeModel = new JCodeModel();
@@ -62,7 +69,7 @@ public class ServiceParametersInterfaceBuilder implements IBuilder {
 			
 			this.appendClassMethods(codeModel, definedClass);
 			
-			codeModel.build(new File("src/main/java"));
+			codeModel.build(this.context.getCodeWriter());
 		} catch (Exception ex) {
 			throw new RuntimeException(ex);
 		}
@@ -70,7 +77,7 @@ public class ServiceParametersInterfaceBuilder implements IBuilder {
 
 	private void appendClassMethods(JCodeModel codeModel, JDefinedClass definedClass) {
 		for (MethodMeta method : this.clazz.getMethods()) {
-			CodeBuilderHelper.addMethodToClass(codeModel, definedClass, method);
+			CodeBuilderHelper.addMethodToClass(this.context.getTypeRegistry(), codeModel, definedClass, method);
 		}
 	}
 	
@@ -1,19 +1,33 @@
 package com.github.aureliano.cgraml.code.gen;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.maven.plugin.logging.Log;
 import org.raml.model.Raml;
 
+import com.github.aureliano.cgraml.code.builder.IBuilder;
+import com.github.aureliano.cgraml.code.meta.ClassMeta;
+import com.github.aureliano.cgraml.code.meta.ServiceGraph;
+import com.github.aureliano.cgraml.code.meta.ServiceMeta;
+
 public abstract class AbstractCodeGenerator implements ICodeGenerator {
 
 	protected Raml raml;
+	protected RamlDocument document;
+	protected GenerationContext context;
 	protected Log logger;
 	protected File generatedSourcesTarget;
 	protected String basePackageName;
+	protected List<String> generatedClasses;
 	
 	public AbstractCodeGenerator() {
-		super();
+		this.generatedClasses = new ArrayList<String>();
 	}
 	
 	@Override
@@ -22,6 +36,19 @@ public abstract class AbstractCodeGenerator implements ICodeGenerator {
 		return this;
 	}
 
+	@Override
+	public ICodeGenerator withDocument(RamlDocument document) {
+		this.document = document;
+		this.raml = document.getRaml();
+		return this;
+	}
+
+	@Override
+	public ICodeGenerator withContext(GenerationContext context) {
+		this.context = context;
+		return this;
+	}
+	
 	@Override
 	public ICodeGenerator withLogger(Log logger) {
 		this.logger = logger;
@@ -39,6 +66,16 @@ public abstract class AbstractCodeGenerator implements ICodeGenerator {
 		return this.raml;
 	}
 
+	@Override
+	public RamlDocument getDocument() {
+		return this.document;
+	}
+	
+	@Override
+	public GenerationContext getContext() {
+		return this.context;
+	}
+
 	@Override
 	public Log getLogger() {
 		return this.logger;
@@ -63,4 +100,65 @@ public abstract class AbstractCodeGenerator implements ICodeGenerator {
 		
 		return this.generatedSourcesTarget;
 	}
+	
+	@Override
+	public List<String> getGeneratedClasses() {
+		return this.generatedClasses;
+	}
+	
+	protected void registerGeneratedClass(ClassMeta clazz) {
+		this.generatedClasses.add(clazz.getCanonicalClassName());
+		
+		this.logger.info("Generated class: " + clazz.getCanonicalClassName());
+		this.logger.debug(clazz.toString());
+	}
+	
+	protected void registerReusedClasses(List<String> classes) {
+		for (String className : classes) {
+			this.generatedClasses.add(className);
+			this.logger.info("Reused class: " + className);
+		}
+	}
+	
+	/**
+	 * Builds already parsed builders. When the generator runs on a fork-join pool the builders are built in parallel,
+	 * so they must be parsed (which is where duplicated classes are detected) before calling this method.
+	 */
+	protected void buildAll(List<? extends IBuilder> builders) {
+		if (!ForkJoinTask.inForkJoinPool() || builders.size() < 2) {
+			for (IBuilder builder : builders) {
+				builder.build();
+			}
+			
+			return;
+		}
+		
+		List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+		for (final IBuilder builder : builders) {
+			tasks.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected void compute() {
+					builder.build();
+				}
+			});
+		}
+		
+		ForkJoinTask.invokeAll(tasks);
+	}
+	
+	/**
+	 * Splits the services of the document into the groups that are built together. In streaming mode every root
+	 * resource subtree is a group of its own, so only the builders of one subtree are held at a time and, since the
+	 * sources writer streams, their sources are written before the next subtree is parsed.
+	 */
+	protected List<Set<ServiceMeta>> getServiceBatches() {
+		ServiceGraph graph = this.document.getServiceGraph();
+		if (this.context.getConfiguration().isStreaming()) {
+			return graph.getSubtrees();
+		}
+		
+		return Collections.singletonList(graph.getServices());
+	}
 }
\ No newline at end of file
@@ -1,16 +1,11 @@
 package com.github.aureliano.cgraml.code.gen;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
-
-import org.raml.model.Resource;
+import java.util.Arrays;
+import java.util.List;
 
 import com.github.aureliano.cgraml.code.builder.ApiMapServicesBuilder;
 import com.github.aureliano.cgraml.code.builder.CodeBuilder;
-import com.github.aureliano.cgraml.code.meta.ClassMeta;
 import com.github.aureliano.cgraml.code.meta.ServiceMeta;
-import com.github.aureliano.cgraml.helper.RamlHelper;
 
 public class ApiMapServicesGenerator extends AbstractCodeGenerator {
 
@@ -19,32 +14,27 @@ public class ApiMapServicesGenerator extends AbstractCodeGenerator {
 	}
 	
 	public void execute() {
-		Set<ServiceMeta> services = this.getMappedServices(super.raml.getResources().values());
+		List<ServiceMeta> services = super.document.getServiceGraph().getRootServices();
 		if (services.isEmpty()) {
 			super.logger.warn("There's not any service/resource mapped. Skipping service generation.");
 			return;
 		}
 		
-		ApiMapServicesBuilder builder = this.createApiMapServicesBuilder(services.toArray(new ServiceMeta[0])).build();
-		ClassMeta clazz = builder.getClazz();
-
-		super.logger.info("Generated class: " + clazz.getCanonicalClassName());
-		super.logger.debug(clazz.toString());
-	}
-	
-	private Set<ServiceMeta> getMappedServices(Collection<Resource> resources) {
-		Set<ServiceMeta> services = new HashSet<ServiceMeta>();
-		
-		for (Resource resource : resources) {
-			ServiceMeta service = RamlHelper.resourceToService(resource);
-			services.add(service);
+		GenerationUnit unit = GenerationUnit.forApiMap(super.raml.getBaseUri(), services);
+		List<String> reusedClasses = super.context.reuse(unit);
+		if (reusedClasses != null) {
+			super.registerReusedClasses(reusedClasses);
+			return;
 		}
 		
-		return services;
+		ApiMapServicesBuilder builder = this.createApiMapServicesBuilder(services.toArray(new ServiceMeta[0])).build();
+		super.registerGeneratedClass(builder.getClazz());
+		super.context.record(unit, Arrays.asList(builder.getClazz().getCanonicalClassName()));
 	}
 	
 	private ApiMapServicesBuilder createApiMapServicesBuilder(ServiceMeta[] services) {
 		ApiMapServicesBuilder builder = CodeBuilder.create(GeneratorType.API_MAP_SERVICES);
+		builder.withContext(super.context);
 		builder.withBaseUri(super.raml.getBaseUri());
 		
 		return builder.parse(super.basePackageName + ".gen", "ApiMap", services);
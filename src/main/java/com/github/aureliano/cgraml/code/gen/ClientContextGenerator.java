@@ -0,0 +1,23 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import com.github.aureliano.cgraml.code.builder.ClientContextBuilder;
+import com.github.aureliano.cgraml.code.builder.CodeBuilder;
+
+public class ClientContextGenerator extends AbstractCodeGenerator {
+	
+	public static final String CLASS_NAME = "ClientContext";
+	
+	public ClientContextGenerator() {
+		super();
+	}
+	
+	@Override
+	public void execute() {
+		ClientContextBuilder builder = CodeBuilder.create(GeneratorType.CLIENT_CONTEXT)
+				.withContext(super.context)
+				.parse(super.basePackageName + ".gen.service", CLASS_NAME, null)
+				.build();
+		
+		super.registerGeneratedClass(builder.getClazz());
+	}
+}
@@ -1,18 +1,37 @@
 package com.github.aureliano.cgraml.code.gen;
 
 import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.maven.plugin.logging.Log;
 
+import com.github.aureliano.cgraml.helper.FileHelper;
+
 public class Configuration {
+	
+	public static final String DEFAULT_INCLUDE = "*.raml";
+	
+	private static final Charset EXECUTION_KEY_CHARSET = Charset.forName("UTF-8");
+	private static final int EXECUTION_KEY_LENGTH = 12;
 
 	private String basePackageName;
 	private File sourceDirectory;
 	private File generatedSourcesTarget;
+	private File workingDirectory;
+	private boolean incremental;
+	private int threads;
+	private boolean streaming;
+	private List<String> includes;
+	private List<String> excludes;
 	private Log logger;
 	
 	public Configuration() {
-		super();
+		this.threads = 1;
+		this.includes = Arrays.asList(DEFAULT_INCLUDE);
+		this.excludes = Collections.emptyList();
 	}
 
 	public String getBasePackageName() {
@@ -50,4 +69,79 @@ public class Configuration {
 		this.logger = logger;
 		return this;
 	}
+	
+	public File getWorkingDirectory() {
+		return this.workingDirectory;
+	}
+	
+	public Configuration withWorkingDirectory(File workingDirectory) {
+		this.workingDirectory = workingDirectory;
+		return this;
+	}
+	
+	/**
+	 * Directory where this execution keeps its state between runs. Executions of a module share the working directory,
+	 * so each one gets a subdirectory named after its base package and a hash of its source directory, base package and
+	 * generated sources target.
+	 * 
+	 * @return The directory or null if there is no working directory.
+	 */
+	public File getExecutionDirectory() {
+		if (this.workingDirectory == null) {
+			return null;
+		}
+		
+		String key = path(this.sourceDirectory) + "|" + this.basePackageName + "|" + path(this.generatedSourcesTarget);
+		return new File(this.workingDirectory, this.basePackageName + "-" + FileHelper.hash(key.getBytes(EXECUTION_KEY_CHARSET))
+				.substring(0, EXECUTION_KEY_LENGTH));
+	}
+	
+	public boolean isIncremental() {
+		return this.incremental;
+	}
+	
+	public Configuration withIncremental(boolean incremental) {
+		this.incremental = incremental;
+		return this;
+	}
+	
+	public int getThreads() {
+		return this.threads;
+	}
+	
+	public Configuration withThreads(int threads) {
+		this.threads = threads;
+		return this;
+	}
+	
+	public boolean isStreaming() {
+		return this.streaming;
+	}
+	
+	public Configuration withStreaming(boolean streaming) {
+		this.streaming = streaming;
+		return this;
+	}
+	
+	public List<String> getIncludes() {
+		return this.includes;
+	}
+	
+	public Configuration withIncludes(List<String> includes) {
+		this.includes = includes;
+		return this;
+	}
+	
+	public List<String> getExcludes() {
+		return this.excludes;
+	}
+	
+	public Configuration withExcludes(List<String> excludes) {
+		this.excludes = excludes;
+		return this;
+	}
+	
+	private static String path(File file) {
+		return (file == null) ? null : file.getAbsolutePath();
+	}
 }
\ No newline at end of file
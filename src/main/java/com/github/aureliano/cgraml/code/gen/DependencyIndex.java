@@ -0,0 +1,170 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Persisted record of what the generated classes were built from. For every generation unit of a RAML file (a schema,
+ * a resource or the API map) it keeps the hash of the unit's inputs, the schemas, resources, resource types and linked
+ * data paths it depends on and the canonical names of the classes it produced. A unit whose hash did not change can
+ * reuse its sources instead of being built again.
+ * <p>
+ * The index is dropped whenever the plugin configuration or the plugin version changes, since every class depends on
+ * them.
+ */
+public class DependencyIndex {
+	
+	public static final String FILE_NAME = "dependencies.properties";
+	
+	private static final String CONFIGURATION_KEY = "configuration";
+	private static final String UNIT_SEPARATOR = "|";
+	private static final String HASH_SUFFIX = ".hash";
+	private static final String DEPENDENCIES_SUFFIX = ".dependencies";
+	private static final String CLASSES_SUFFIX = ".classes";
+	private static final String SEPARATOR = ",";
+	
+	private File file;
+	private Properties properties;
+	
+	public DependencyIndex(File file) {
+		this.file = file;
+		this.properties = new Properties();
+	}
+	
+	public static DependencyIndex load(File directory, String configurationFingerprint) {
+		DependencyIndex index = new DependencyIndex(new File(directory, FILE_NAME));
+		if (index.file.isFile()) {
+			InputStream stream = null;
+			try {
+				stream = new FileInputStream(index.file);
+				index.properties.load(stream);
+			} catch (IOException ex) {
+				index.properties.clear();
+			} finally {
+				IOUtils.closeQuietly(stream);
+			}
+		}
+		
+		String fingerprint = GenerationManifest.PLUGIN_VERSION + UNIT_SEPARATOR + configurationFingerprint;
+		if (!fingerprint.equals(index.properties.getProperty(CONFIGURATION_KEY))) {
+			index.properties.clear();
+			index.properties.setProperty(CONFIGURATION_KEY, fingerprint);
+		}
+		
+		return index;
+	}
+	
+	public void save() {
+		OutputStream stream = null;
+		try {
+			this.file.getParentFile().mkdirs();
+			stream = new FileOutputStream(this.file);
+			this.properties.store(stream, "Generated by cgraml-maven-plugin. Do not edit.");
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		} finally {
+			IOUtils.closeQuietly(stream);
+		}
+	}
+	
+	public boolean isUpToDate(String ramlFile, String unit, String hash) {
+		return hash.equals(this.properties.getProperty(key(ramlFile, unit) + HASH_SUFFIX));
+	}
+	
+	public List<String> getGeneratedClasses(String ramlFile, String unit) {
+		return this.getList(key(ramlFile, unit) + CLASSES_SUFFIX);
+	}
+	
+	public List<String> getDependencies(String ramlFile, String unit) {
+		return this.getList(key(ramlFile, unit) + DEPENDENCIES_SUFFIX);
+	}
+	
+	/**
+	 * @return The classes of the RAML file that depend on the given schema, resource, resource type or linked data path.
+	 */
+	public Set<String> getDependentClasses(String ramlFile, String dependency) {
+		Set<String> classes = new TreeSet<String>();
+		for (String unit : this.getUnits(ramlFile)) {
+			if (this.getDependencies(ramlFile, unit).contains(dependency)) {
+				classes.addAll(this.getGeneratedClasses(ramlFile, unit));
+			}
+		}
+		
+		return classes;
+	}
+	
+	public void update(String ramlFile, String unit, String hash, Collection<String> dependencies, Collection<String> classes) {
+		String key = key(ramlFile, unit);
+		this.properties.setProperty(key + HASH_SUFFIX, hash);
+		this.properties.setProperty(key + DEPENDENCIES_SUFFIX, StringUtils.join(new TreeSet<String>(dependencies), SEPARATOR));
+		this.properties.setProperty(key + CLASSES_SUFFIX, StringUtils.join(new TreeSet<String>(classes), SEPARATOR));
+	}
+	
+	/**
+	 * Removes the units of the RAML file that are not in the given ones (i.e. removed schemas or resources).
+	 */
+	public void retainUnits(String ramlFile, Collection<String> units) {
+		for (String unit : this.getUnits(ramlFile)) {
+			if (!units.contains(unit)) {
+				this.removeUnit(ramlFile, unit);
+			}
+		}
+	}
+	
+	public void remove(String ramlFile) {
+		this.retainUnits(ramlFile, new ArrayList<String>());
+	}
+	
+	public Set<String> getUnits(String ramlFile) {
+		String prefix = ramlFile + UNIT_SEPARATOR;
+		Set<String> units = new TreeSet<String>();
+		
+		synchronized (this.properties) {
+			for (String key : this.properties.stringPropertyNames()) {
+				if (key.startsWith(prefix) && key.endsWith(HASH_SUFFIX)) {
+					units.add(key.substring(prefix.length(), key.length() - HASH_SUFFIX.length()));
+				}
+			}
+		}
+		
+		return units;
+	}
+	
+	public File getFile() {
+		return this.file;
+	}
+	
+	private void removeUnit(String ramlFile, String unit) {
+		String key = key(ramlFile, unit);
+		this.properties.remove(key + HASH_SUFFIX);
+		this.properties.remove(key + DEPENDENCIES_SUFFIX);
+		this.properties.remove(key + CLASSES_SUFFIX);
+	}
+	
+	private List<String> getList(String key) {
+		String value = this.properties.getProperty(key);
+		if (StringUtils.isEmpty(value)) {
+			return new ArrayList<String>();
+		}
+		
+		return new ArrayList<String>(Arrays.asList(value.split(SEPARATOR)));
+	}
+	
+	private static String key(String ramlFile, String unit) {
+		return ramlFile + UNIT_SEPARATOR + unit;
+	}
+}
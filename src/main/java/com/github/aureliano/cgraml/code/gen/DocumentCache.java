@@ -0,0 +1,475 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.raml.model.ActionType;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+
+import com.github.aureliano.cgraml.code.meta.ActionMeta;
+import com.github.aureliano.cgraml.code.meta.FieldMeta;
+import com.github.aureliano.cgraml.code.meta.ServiceGraph;
+import com.github.aureliano.cgraml.code.meta.ServiceMeta;
+import com.github.aureliano.cgraml.helper.FileHelper;
+import com.github.aureliano.cgraml.helper.RamlHelper;
+
+/**
+ * Binary cache of the services parsed from every top level resource of the RAML files, kept in the working directory
+ * between executions.
+ * <p>
+ * A RAML file is split in sections: every top level resource is a section of its own and everything else (title, base
+ * URI, schemas, resource types, traits...) makes up the shared section. Sections are hashed with the files they
+ * include. When the shared section did not change, the top level resources whose section did not change either are
+ * blanked out before the document is validated and parsed, and their services are read from the cache. Blanked lines
+ * are kept, so line numbers of validation messages are the same as for the whole file.
+ * <p>
+ * The services written for every RAML file are also kept in memory, so a cache used by successive runs of the same
+ * generator (watch goal) does not read them back from disk.
+ * <p>
+ * Only service trees are cached. Schemas belong to the shared section, which is always validated and parsed, and
+ * the models built from unchanged schemas are already skipped through the {@link DependencyIndex}. Types are resolved
+ * by a {@link TypeRegistry} of each code model, which is cheap to fill again, so neither is kept here.
+ */
+public class DocumentCache {
+	
+	public static final String DIRECTORY_NAME = "documents";
+	
+	private static final int FORMAT_VERSION = 1;
+	private static final String FILE_EXTENSION = ".bin";
+	private static final String RESOURCE_PREFIX = "/";
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final Pattern ANCHOR_PATTERN = Pattern.compile("&([\\w-]+)");
+	
+	private File directory;
+	private Map<File, Snapshot> snapshots;
+	
+	public DocumentCache(File workingDirectory) {
+		this.directory = new File(workingDirectory, DIRECTORY_NAME);
+		this.snapshots = new ConcurrentHashMap<File, Snapshot>();
+	}
+	
+	/**
+	 * Splits the RAML file in sections and finds the top level resources that can be read from the cache.
+	 */
+	public Entry prepare(String ramlFileName, File ramlFile, byte[] content) {
+		Entry entry = new Entry(this.getCacheFile(ramlFileName));
+		String text = new String(content, UTF_8);
+		List<String> lines = splitLines(text);
+		List<Section> sections = findResourceSections(text, lines.size());
+		
+		boolean[] resourceLines = new boolean[lines.size()];
+		for (Section section : sections) {
+			StringBuilder sectionText = new StringBuilder();
+			for (int line = section.start; line < section.end; line++) {
+				sectionText.append(lines.get(line));
+				resourceLines[line] = true;
+			}
+			section.text = sectionText.toString();
+			section.hash = RamlHelper.fingerprint(ramlFile, section.text.getBytes(UTF_8), "");
+		}
+		
+		StringBuilder shared = new StringBuilder();
+		for (int line = 0; line < lines.size(); line++) {
+			if (!resourceLines[line]) {
+				shared.append(lines.get(line));
+			}
+		}
+		markSectionsWithAliases(sections, shared.toString());
+		
+		entry.sharedHash = RamlHelper.fingerprint(ramlFile, shared.toString().getBytes(UTF_8), parserVersion());
+		entry.sections = sections;
+		entry.reusedServices = this.readReusableServices(entry);
+		
+		StringBuilder reduced = new StringBuilder();
+		boolean[] blanked = new boolean[lines.size()];
+		for (Section section : sections) {
+			if (entry.reusedServices.containsKey(section.uri)) {
+				for (int line = section.start; line < section.end; line++) {
+					blanked[line] = true;
+				}
+			}
+		}
+		
+		for (int line = 0; line < lines.size(); line++) {
+			reduced.append((blanked[line]) ? lineBreak(lines.get(line)) : lines.get(line));
+		}
+		entry.content = reduced.toString().getBytes(UTF_8);
+		
+		return entry;
+	}
+	
+	/**
+	 * Completes a document parsed from {@link Entry#getContent()} with the services read from the cache and saves the
+	 * services of every top level resource for the next execution.
+	 */
+	public RamlDocument complete(Entry entry, RamlDocument document) {
+		Map<String, ServiceMeta> parsedServices = new HashMap<String, ServiceMeta>();
+		for (ServiceMeta service : document.getServiceGraph().getRootServices()) {
+			parsedServices.put(service.getUri(), service);
+		}
+		
+		List<ServiceMeta> rootServices = new ArrayList<ServiceMeta>();
+		for (Section section : entry.sections) {
+			ServiceMeta service = entry.reusedServices.get(section.uri);
+			if (service == null) {
+				service = parsedServices.get(section.uri);
+			}
+			
+			if (service != null) {
+				rootServices.add(service);
+			}
+		}
+		
+		if (rootServices.size() != document.getServiceGraph().getRootServices().size() + entry.reusedServices.size()) {
+			throw new IllegalStateException("Top level resources of " + document.getFile().getPath() + " could not be matched to the parsed ones.");
+		}
+		
+		this.write(entry, rootServices);
+		return new RamlDocument()
+			.withFile(document.getFile())
+			.withRaml(document.getRaml())
+			.withResourceIndex(document.getResourceIndex())
+			.withServiceGraph(new ServiceGraph(rootServices));
+	}
+	
+	private File getCacheFile(String ramlFileName) {
+		return new File(this.directory, FileHelper.hash(ramlFileName.getBytes(UTF_8)) + FILE_EXTENSION);
+	}
+	
+	private Map<String, ServiceMeta> readReusableServices(Entry entry) {
+		Map<String, ServiceMeta> services = new HashMap<String, ServiceMeta>();
+		Snapshot snapshot = this.snapshots.get(entry.file);
+		if (snapshot == null) {
+			snapshot = this.read(entry);
+		}
+		
+		if ((snapshot == null) || !entry.sharedHash.equals(snapshot.sharedHash)) {
+			return services;
+		}
+		
+		Map<String, String> hashes = new HashMap<String, String>();
+		for (Section section : entry.sections) {
+			hashes.put(section.uri, section.hash);
+		}
+		
+		for (ServiceMeta service : snapshot.services) {
+			String uri = service.getUri();
+			if (snapshot.hashes.get(uri).equals(hashes.get(uri)) && !entry.isLinked(uri)) {
+				services.put(uri, service);
+			}
+		}
+		
+		return services;
+	}
+	
+	private Snapshot read(Entry entry) {
+		if (!entry.file.isFile()) {
+			return null;
+		}
+		
+		DataInputStream stream = null;
+		try {
+			stream = new DataInputStream(new BufferedInputStream(new FileInputStream(entry.file)));
+			if ((stream.readInt() != FORMAT_VERSION) || !entry.sharedHash.equals(stream.readUTF())) {
+				return null;
+			}
+			
+			Snapshot snapshot = new Snapshot(entry.sharedHash);
+			int count = stream.readInt();
+			for (int i = 0; i < count; i++) {
+				String uri = stream.readUTF();
+				String hash = stream.readUTF();
+				ServiceMeta service = readService(stream, null);
+				
+				snapshot.hashes.put(uri, hash);
+				snapshot.services.add(service);
+			}
+			
+			return snapshot;
+		} catch (IOException ex) {
+			return null;
+		} finally {
+			IOUtils.closeQuietly(stream);
+		}
+	}
+	
+	private void write(Entry entry, List<ServiceMeta> rootServices) {
+		Map<String, String> hashes = new HashMap<String, String>();
+		for (Section section : entry.sections) {
+			hashes.put(section.uri, section.hash);
+		}
+		
+		DataOutputStream stream = null;
+		try {
+			this.directory.mkdirs();
+			stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(entry.file)));
+			stream.writeInt(FORMAT_VERSION);
+			stream.writeUTF(entry.sharedHash);
+			stream.writeInt(rootServices.size());
+			
+			for (ServiceMeta service : rootServices) {
+				stream.writeUTF(service.getUri());
+				stream.writeUTF(hashes.get(service.getUri()));
+				writeService(stream, service);
+			}
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		} finally {
+			IOUtils.closeQuietly(stream);
+		}
+		
+		Snapshot snapshot = new Snapshot(entry.sharedHash);
+		snapshot.hashes.putAll(hashes);
+		snapshot.services.addAll(rootServices);
+		this.snapshots.put(entry.file, snapshot);
+	}
+	
+	private static void writeService(DataOutputStream stream, ServiceMeta service) throws IOException {
+		writeString(stream, service.getUri());
+		writeString(stream, service.getType());
+		writeString(stream, service.getGenericType());
+		writeString(stream, service.getResourceType());
+		
+		stream.writeInt(service.getActions().size());
+		for (ActionMeta action : service.getActions()) {
+			stream.writeUTF(action.getMethod().name());
+			stream.writeBoolean(action.isTypedCollection());
+			
+			stream.writeInt(action.getParameters().size());
+			for (FieldMeta parameter : action.getParameters()) {
+				writeString(stream, parameter.getName());
+				writeString(stream, parameter.getType());
+				writeString(stream, parameter.getDefaultValue());
+			}
+		}
+		
+		stream.writeInt(service.getNextServices().size());
+		for (ServiceMeta nextService : service.getNextServices()) {
+			writeService(stream, nextService);
+		}
+	}
+	
+	private static ServiceMeta readService(DataInputStream stream, ServiceMeta parent) throws IOException {
+		ServiceMeta service = new ServiceMeta();
+		service.setUri(readString(stream));
+		service.setType(readString(stream));
+		service.setGenericType(readString(stream));
+		service.setResourceType(readString(stream));
+		service.setParentService(parent);
+		
+		int actions = stream.readInt();
+		for (int i = 0; i < actions; i++) {
+			ActionMeta action = new ActionMeta();
+			action.setMethod(ActionType.valueOf(stream.readUTF()));
+			action.setTypedCollection(stream.readBoolean());
+			
+			int parameters = stream.readInt();
+			for (int j = 0; j < parameters; j++) {
+				FieldMeta parameter = new FieldMeta();
+				parameter.setName(readString(stream));
+				parameter.setType(readString(stream));
+				parameter.setDefaultValue(readString(stream));
+				action.addParameter(parameter);
+			}
+			
+			service.addAction(action);
+		}
+		
+		int nextServices = stream.readInt();
+		for (int i = 0; i < nextServices; i++) {
+			service.addNextService(readService(stream, service));
+		}
+		
+		return service;
+	}
+	
+	private static void writeString(DataOutputStream stream, String value) throws IOException {
+		stream.writeBoolean(value != null);
+		if (value != null) {
+			stream.writeUTF(value);
+		}
+	}
+	
+	private static String readString(DataInputStream stream) throws IOException {
+		return (stream.readBoolean()) ? stream.readUTF() : null;
+	}
+	
+	/**
+	 * Finds the lines of every top level resource: from its key to the next top level key. Documents whose top level
+	 * is not a block mapping, or that are not valid
+	 * YAML (the parser reports why), are not split at all.
+	 */
+	private static List<Section> findResourceSections(String text, int lineCount) {
+		List<Section> sections = new ArrayList<Section>();
+		Node root = null;
+		try {
+			root = new Yaml().compose(new StringReader(text));
+		} catch (RuntimeException ex) {
+			return sections;
+		}
+		
+		if (!(root instanceof MappingNode)) {
+			return sections;
+		}
+		
+		List<NodeTuple> tuples = ((MappingNode) root).getValue();
+		for (int i = 0; i < tuples.size(); i++) {
+			Node key = tuples.get(i).getKeyNode();
+			if (key.getStartMark().getColumn() != 0) {
+				return new ArrayList<Section>();
+			}
+			
+			if ((key instanceof ScalarNode) && ((ScalarNode) key).getValue().startsWith(RESOURCE_PREFIX)) {
+				Section section = new Section();
+				section.uri = ((ScalarNode) key).getValue();
+				section.start = key.getStartMark().getLine();
+				section.end = (i + 1 < tuples.size()) ? tuples.get(i + 1).getKeyNode().getStartMark().getLine() : lineCount;
+				sections.add(section);
+			}
+		}
+		
+		return sections;
+	}
+	
+	/**
+	 * Marks the sections that define a YAML anchor used anywhere else or use an anchor defined by another resource.
+	 * They are always parsed, since blanking them out, or the section they depend on, would break the document.
+	 */
+	private static void markSectionsWithAliases(List<Section> sections, String shared) {
+		for (Section section : sections) {
+			for (Section other : sections) {
+				if ((other != section) && uses(other.text, section.text)) {
+					section.linked = true;
+					other.linked = true;
+				}
+			}
+			
+			if (uses(shared, section.text)) {
+				section.linked = true;
+			}
+		}
+	}
+	
+	private static boolean uses(String text, String anchorText) {
+		Matcher anchors = ANCHOR_PATTERN.matcher(anchorText);
+		while (anchors.find()) {
+			if (text.contains("*" + anchors.group(1))) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	private static List<String> splitLines(String text) {
+		List<String> lines = new ArrayList<String>();
+		int start = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				lines.add(text.substring(start, i + 1));
+				start = i + 1;
+			}
+		}
+		
+		if (start < text.length()) {
+			lines.add(text.substring(start));
+		}
+		
+		return lines;
+	}
+	
+	private static String lineBreak(String line) {
+		return (line.endsWith("\r\n")) ? "\r\n" : (line.endsWith("\n")) ? "\n" : "";
+	}
+	
+	private static String parserVersion() {
+		return FORMAT_VERSION + "|" + RamlHelper.parserVersion();
+	}
+	
+	/**
+	 * A RAML file split in sections, with the services that can be read from the cache.
+	 */
+	public static class Entry {
+		
+		private File file;
+		private String sharedHash;
+		private List<Section> sections;
+		private Map<String, ServiceMeta> reusedServices;
+		private byte[] content;
+		
+		private Entry(File file) {
+			this.file = file;
+		}
+		
+		/**
+		 * @return The RAML file with the top level resources read from the cache blanked out.
+		 */
+		public byte[] getContent() {
+			return this.content;
+		}
+		
+		public int getResourceCount() {
+			return this.sections.size();
+		}
+		
+		public int getReusedCount() {
+			return this.reusedServices.size();
+		}
+		
+		private boolean isLinked(String uri) {
+			for (Section section : this.sections) {
+				if (section.uri.equals(uri)) {
+					return section.linked;
+				}
+			}
+			
+			return false;
+		}
+	}
+	
+	/**
+	 * The services written for a RAML file, with the hash of their section.
+	 */
+	private static class Snapshot {
+		
+		private String sharedHash;
+		private Map<String, String> hashes;
+		private List<ServiceMeta> services;
+		
+		private Snapshot(String sharedHash) {
+			this.sharedHash = sharedHash;
+			this.hashes = new HashMap<String, String>();
+			this.services = new ArrayList<ServiceMeta>();
+		}
+	}
+	
+	private static class Section {
+		
+		private String uri;
+		private int start;
+		private int end;
+		private String text;
+		private String hash;
+		private boolean linked;
+	}
+}
@@ -2,7 +2,6 @@ package com.github.aureliano.cgraml.code.gen;
 
 import com.github.aureliano.cgraml.code.builder.CodeBuilder;
 import com.github.aureliano.cgraml.code.builder.EagerDataListBuilder;
-import com.github.aureliano.cgraml.code.meta.ClassMeta;
 
 public class EagerDataListGenerator extends AbstractCodeGenerator {
 
@@ -15,12 +14,10 @@ public class EagerDataListGenerator extends AbstractCodeGenerator {
 	@Override
 	public void execute() {
 		EagerDataListBuilder builder = CodeBuilder.create(GeneratorType.EAGER_DATA_LIST)
+				.withContext(super.context)
 				.parse(super.basePackageName + ".gen", CLASS_NAME, null)
 				.build();
 			
-			ClassMeta clazz = builder.getClazz();
-
-			super.logger.info("Generated class: " + clazz.getCanonicalClassName());
-			super.logger.debug(clazz.toString());
+			super.registerGeneratedClass(builder.getClazz());
 	}
 }
\ No newline at end of file
@@ -0,0 +1,283 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.io.IOUtils;
+
+import com.github.aureliano.cgraml.helper.FileHelper;
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JPackage;
+
+/**
+ * Output sink shared by every builder of a run. Sources are kept in memory while the code models are built and are
+ * written to the generated sources target in a single pass by {@link #flush()}. Classes of the base package and its
+ * subpackages are written relative to the target, so the target directory maps to the base package.
+ * <p>
+ * Files whose content did not change are not touched, so their modification time is preserved and incremental
+ * compilers downstream do not recompile them.
+ * <p>
+ * In streaming mode nothing is kept in memory: every source is written as soon as the code model finishes it.
+ * <p>
+ * When several RAML files generate the same class, identical sources are kept once. Different sources are reported
+ * by {@link #getConflicts()} and the source of the RAML file first in alphabetical order is kept, so the result does
+ * not depend on the order in which files are processed.
+ */
+public class GeneratedSourcesWriter extends CodeWriter {
+	
+	private static final String SOURCE_EXTENSION = ".java";
+	
+	private File target;
+	private String basePackageName;
+	private Map<File, byte[]> sources;
+	private Map<File, String> origins;
+	private Map<File, String> hashes;
+	private List<String> conflicts;
+	private Set<File> files;
+	private Set<File> directories;
+	private boolean streaming;
+	private int writtenCount;
+	private int unchangedCount;
+	private long bytesWritten;
+	
+	public GeneratedSourcesWriter(File target, String basePackageName) {
+		this.target = target;
+		this.basePackageName = basePackageName;
+		this.sources = new TreeMap<File, byte[]>();
+		this.origins = new HashMap<File, String>();
+		this.hashes = new HashMap<File, String>();
+		this.conflicts = new ArrayList<String>();
+		this.files = new HashSet<File>();
+		this.directories = new HashSet<File>();
+	}
+	
+	@Override
+	public OutputStream openBinary(JPackage pkg, String fileName) throws IOException {
+		return new SourceStream(this.getFile(pkg.name(), fileName), null);
+	}
+	
+	/**
+	 * Called by the code model at the end of each build. Sources are only written by {@link #flush()}.
+	 */
+	@Override
+	public void close() throws IOException {
+	}
+	
+	/**
+	 * @return A code writer whose sources are recorded as generated from the given RAML file.
+	 */
+	public CodeWriter forRamlFile(final String ramlFile) {
+		return new CodeWriter() {
+			@Override
+			public OutputStream openBinary(JPackage pkg, String fileName) throws IOException {
+				return new SourceStream(getFile(pkg.name(), fileName), ramlFile);
+			}
+			
+			@Override
+			public void close() throws IOException {
+			}
+		};
+	}
+	
+	/**
+	 * Takes the source of a class whose inputs did not change as if it had just been generated, so it is kept, counted
+	 * as unchanged and still checked for conflicts with other RAML files.
+	 */
+	public void reuse(String canonicalClassName, String ramlFile) {
+		File file = this.getSourceFile(canonicalClassName);
+		this.complete(file, ramlFile, FileHelper.readBytes(file));
+	}
+	
+	public synchronized void flush() {
+		for (Map.Entry<File, byte[]> entry : this.sources.entrySet()) {
+			this.store(entry.getKey(), entry.getValue());
+		}
+			
+		this.sources.clear();
+	}
+	
+	private synchronized void complete(File file, String ramlFile, byte[] source) {
+		if (!this.accept(file, ramlFile, source)) {
+			return;
+		}
+	
+		if (this.streaming) {
+			this.store(file, source);
+		} else {
+			this.sources.put(file, source);
+		}
+	}
+	
+	private boolean accept(File file, String ramlFile, byte[] source) {
+		if (ramlFile == null) {
+			return true;
+		}
+		
+		String hash = FileHelper.hash(source);
+		String origin = this.origins.get(file);
+		
+		if ((origin != null) && !origin.equals(ramlFile)) {
+			if (hash.equals(this.hashes.get(file))) {
+				return false;
+			}
+			
+			String first = (ramlFile.compareTo(origin) < 0) ? ramlFile : origin;
+			String second = (first.equals(ramlFile)) ? origin : ramlFile;
+			this.conflicts.add("Source " + file.getPath() + " is generated differently from " + first + " and " + second +
+					". Keeping the one from " + first + ".");
+			
+			if (second.equals(ramlFile)) {
+				return false;
+			}
+		}
+		
+		this.origins.put(file, ramlFile);
+		this.hashes.put(file, hash);
+		
+		return true;
+	}
+	
+	private void store(File file, byte[] source) {
+		this.files.add(file);
+		if (!this.hasChanged(file, source)) {
+			this.unchangedCount++;
+			return;
+		}
+				
+		File directory = file.getParentFile();
+		if (this.directories.add(directory) && !directory.isDirectory() && !directory.mkdirs()) {
+			throw new RuntimeException("Could not create directory " + directory.getPath());
+		}
+				
+		this.write(file, source);
+		this.writtenCount++;
+		this.bytesWritten += source.length;
+	}
+			
+	/**
+	 * Deletes the source files of the given classes, unless this writer produced them. Only classes an earlier run
+	 * recorded as generated are passed here, so files of other executions sharing the package and files placed there
+	 * by hand are left alone.
+	 * 
+	 * @return The deleted files.
+	 */
+	public List<File> deleteSources(Collection<String> classNames) {
+		List<File> deleted = new ArrayList<File>();
+		for (String className : classNames) {
+			File file = this.getSourceFile(className);
+			if (this.files.contains(file) || !file.isFile()) {
+				continue;
+			}
+			
+			if (file.delete()) {
+				deleted.add(file);
+			}
+		}
+		
+		return deleted;
+	}
+	
+	public File getSourceFile(String canonicalClassName) {
+		int index = canonicalClassName.lastIndexOf('.');
+		String packageName = (index < 0) ? "" : canonicalClassName.substring(0, index);
+		
+		return this.getFile(packageName, canonicalClassName.substring(index + 1) + SOURCE_EXTENSION);
+	}
+	
+	private File getPackageDirectory(String packageName) {
+		if (packageName.equals(this.basePackageName)) {
+			return this.target;
+		} else if (packageName.startsWith(this.basePackageName + ".")) {
+			packageName = packageName.substring(this.basePackageName.length() + 1);
+		}
+		
+		return new File(this.target, packageName.replace('.', File.separatorChar));
+	}
+	
+	private File getFile(String packageName, String fileName) {
+		return new File(this.getPackageDirectory(packageName), fileName);
+	}
+	
+	private boolean hasChanged(File file, byte[] source) {
+		if (!file.isFile() || (file.length() != source.length)) {
+			return true;
+		}
+		
+		return !FileHelper.hash(file).equals(FileHelper.hash(source));
+	}
+	
+	private void write(File file, byte[] source) {
+		OutputStream stream = null;
+		try {
+			stream = new FileOutputStream(file);
+			stream.write(source);
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		} finally {
+			IOUtils.closeQuietly(stream);
+		}
+	}
+	
+	public boolean isStreaming() {
+		return this.streaming;
+	}
+	
+	public GeneratedSourcesWriter withStreaming(boolean streaming) {
+		this.streaming = streaming;
+		return this;
+	}
+	
+	public File getTarget() {
+		return this.target;
+	}
+	
+	public int getWrittenCount() {
+		return this.writtenCount;
+	}
+
+	public int getUnchangedCount() {
+		return this.unchangedCount;
+	}
+	
+	public long getBytesWritten() {
+		return this.bytesWritten;
+	}
+	
+	public synchronized List<String> getConflicts() {
+		return new ArrayList<String>(this.conflicts);
+	}
+	
+	/**
+	 * Buffer of a single source file, handed to the writer as soon as the code model closes it.
+	 */
+	private class SourceStream extends ByteArrayOutputStream {
+		
+		private File file;
+		private String ramlFile;
+		private boolean closed;
+		
+		public SourceStream(File file, String ramlFile) {
+			this.file = file;
+			this.ramlFile = ramlFile;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (!this.closed) {
+				this.closed = true;
+				complete(this.file, this.ramlFile, super.toByteArray());
+			}
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sun.codemodel.CodeWriter;
+
+/**
+ * State shared by generators and builders during a single plugin execution. A new context is created for every run,
+ * so nothing leaks between executions or between modules built concurrently.
+ * <p>
+ * Every RAML file is generated with a context of its own, created by {@link #forRamlFile(String)}: it shares the
+ * run's sources writer, report and type registry but tracks the classes generated from that file only, so files can
+ * be generated concurrently.
+ */
+public class GenerationContext {
+	
+	private Configuration configuration;
+	private Set<String> generatedClasses;
+	private String ramlFileName;
+	private GeneratedSourcesWriter sourcesWriter;
+	private CodeWriter codeWriter;
+	private GenerationReport report;
+	private TypeRegistry typeRegistry;
+	private DependencyIndex dependencyIndex;
+	private Set<String> units;
+	
+	public GenerationContext(Configuration configuration) {
+		this.configuration = configuration;
+		this.generatedClasses = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		this.typeRegistry = new TypeRegistry();
+		
+		File target = configuration.getGeneratedSourcesTarget();
+		if (target == null) {
+			target = ICodeGenerator.DEFAULT_GEN_DIRECTORY;
+		}
+		this.sourcesWriter = new GeneratedSourcesWriter(target, configuration.getBasePackageName())
+			.withStreaming(configuration.isStreaming());
+		this.codeWriter = this.sourcesWriter;
+		this.report = GenerationReport.start(configuration.getThreads());
+		this.units = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	}
+	
+	private GenerationContext(GenerationContext parent, String ramlFileName) {
+		this.configuration = parent.configuration;
+		this.generatedClasses = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		this.typeRegistry = parent.typeRegistry;
+		this.ramlFileName = ramlFileName;
+		this.sourcesWriter = parent.sourcesWriter;
+		this.codeWriter = parent.sourcesWriter.forRamlFile(ramlFileName);
+		this.report = parent.report;
+		this.dependencyIndex = parent.dependencyIndex;
+		this.units = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	}
+	
+	public GenerationContext forRamlFile(String ramlFileName) {
+		return new GenerationContext(this, ramlFileName);
+	}
+	
+	public boolean isClassGenerated(String canonicalClassName) {
+		return this.generatedClasses.contains(canonicalClassName);
+	}
+	
+	public boolean addGeneratedClass(String canonicalClassName) {
+		this.typeRegistry.registerGeneratedClass(canonicalClassName);
+		return this.generatedClasses.add(canonicalClassName);
+	}
+	
+	/**
+	 * Reuses the sources of a unit whose inputs did not change since the last generation. Its classes are registered
+	 * as generated, so duplicated classes are still detected, and their sources are handed to the writer as they are
+	 * on disk, so they are kept and still checked against other RAML files.
+	 * 
+	 * @return The reused classes or null if the unit has to be built.
+	 */
+	public List<String> reuse(GenerationUnit unit) {
+		this.units.add(unit.getName());
+		if ((this.dependencyIndex == null) || !this.dependencyIndex.isUpToDate(this.ramlFileName, unit.getName(), unit.getHash())) {
+			return null;
+		}
+		
+		List<String> classes = this.dependencyIndex.getGeneratedClasses(this.ramlFileName, unit.getName());
+		if (classes.isEmpty()) {
+			return null;
+		}
+		
+		for (String className : classes) {
+			if (this.isClassGenerated(className) || !this.sourcesWriter.getSourceFile(className).isFile()) {
+				return null;
+			}
+		}
+		
+		for (String className : classes) {
+			this.addGeneratedClass(className);
+			this.sourcesWriter.reuse(className, this.ramlFileName);
+		}
+		
+		return classes;
+	}
+	
+	public void record(GenerationUnit unit, Collection<String> classes) {
+		if (this.dependencyIndex != null) {
+			this.dependencyIndex.update(this.ramlFileName, unit.getName(), unit.getHash(), unit.getDependencies(), classes);
+		}
+	}
+	
+	/**
+	 * @return Names of the units generated or reused with this context.
+	 */
+	public Set<String> getUnits() {
+		return this.units;
+	}
+	
+	public Configuration getConfiguration() {
+		return this.configuration;
+	}
+	
+	public String getRamlFileName() {
+		return this.ramlFileName;
+	}
+	
+	public GeneratedSourcesWriter getSourcesWriter() {
+		return this.sourcesWriter;
+	}
+	
+	/**
+	 * @return Where builders write the sources of their code models.
+	 */
+	public CodeWriter getCodeWriter() {
+		return this.codeWriter;
+	}
+	
+	public GenerationReport getReport() {
+		return this.report;
+	}
+	
+	public TypeRegistry getTypeRegistry() {
+		return this.typeRegistry;
+	}
+	
+	public DependencyIndex getDependencyIndex() {
+		return this.dependencyIndex;
+	}
+
+	public GenerationContext withDependencyIndex(DependencyIndex dependencyIndex) {
+		this.dependencyIndex = dependencyIndex;
+		return this;
+	}
+}
@@ -0,0 +1,148 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Persisted record of the last generation: for every RAML file, the fingerprint of its content (includes and
+ * plugin configuration) and the canonical names of the classes it produced.
+ */
+public class GenerationManifest {
+	
+	public static final String FILE_NAME = "manifest.properties";
+	public static final String VERSION = "1";
+	public static final String PLUGIN_VERSION = readPluginVersion();
+	
+	private static final String POM_PROPERTIES = "/META-INF/maven/com.github.aureliano/cgraml-maven-plugin/pom.properties";
+	private static final String HASH_SUFFIX = ".hash";
+	private static final String CLASSES_SUFFIX = ".classes";
+	private static final String CLASS_SEPARATOR = ",";
+	
+	private File file;
+	private Properties properties;
+	
+	public GenerationManifest(File file) {
+		this.file = file;
+		this.properties = new Properties();
+	}
+	
+	public static GenerationManifest load(File directory) {
+		GenerationManifest manifest = new GenerationManifest(new File(directory, FILE_NAME));
+		if (!manifest.file.isFile()) {
+			return manifest;
+		}
+		
+		InputStream stream = null;
+		try {
+			stream = new FileInputStream(manifest.file);
+			manifest.properties.load(stream);
+		} catch (IOException ex) {
+			manifest.properties.clear();
+		} finally {
+			IOUtils.closeQuietly(stream);
+		}
+		
+		return manifest;
+	}
+	
+	public void save() {
+		OutputStream stream = null;
+		try {
+			this.file.getParentFile().mkdirs();
+			stream = new FileOutputStream(this.file);
+			this.properties.store(stream, "Generated by cgraml-maven-plugin. Do not edit.");
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		} finally {
+			IOUtils.closeQuietly(stream);
+		}
+	}
+	
+	public boolean isUpToDate(String ramlFile, String fingerprint) {
+		return fingerprint.equals(this.properties.getProperty(ramlFile + HASH_SUFFIX));
+	}
+	
+	public List<String> getGeneratedClasses(String ramlFile) {
+		String classes = this.properties.getProperty(ramlFile + CLASSES_SUFFIX);
+		if (StringUtils.isEmpty(classes)) {
+			return new ArrayList<String>();
+		}
+		
+		return new ArrayList<String>(Arrays.asList(classes.split(CLASS_SEPARATOR)));
+	}
+	
+	public void update(String ramlFile, String fingerprint, Collection<String> classes) {
+		this.properties.setProperty(ramlFile + HASH_SUFFIX, fingerprint);
+		this.properties.setProperty(ramlFile + CLASSES_SUFFIX, StringUtils.join(new TreeSet<String>(classes), CLASS_SEPARATOR));
+	}
+	
+	public void remove(String ramlFile) {
+		this.properties.remove(ramlFile + HASH_SUFFIX);
+		this.properties.remove(ramlFile + CLASSES_SUFFIX);
+	}
+	
+	public Set<String> getRamlFiles() {
+		Set<String> files = new TreeSet<String>();
+		for (String key : this.properties.stringPropertyNames()) {
+			if (key.endsWith(HASH_SUFFIX)) {
+				files.add(key.substring(0, key.length() - HASH_SUFFIX.length()));
+			}
+		}
+		
+		return files;
+	}
+	
+	public Set<String> getAllGeneratedClasses() {
+		Set<String> classes = new HashSet<String>();
+		for (String ramlFile : this.getRamlFiles()) {
+			classes.addAll(this.getGeneratedClasses(ramlFile));
+		}
+		
+		return classes;
+	}
+	
+	public File getFile() {
+		return this.file;
+	}
+	
+	/**
+	 * Identifies the plugin build, so that sources generated by another version of the plugin are never taken as up
+	 * to date. Read from the jar manifest or, failing that, from the pom.properties Maven packs into the plugin jar.
+	 */
+	private static String readPluginVersion() {
+		Package pkg = GenerationManifest.class.getPackage();
+		if ((pkg != null) && (pkg.getImplementationVersion() != null)) {
+			return pkg.getImplementationVersion();
+		}
+		
+		InputStream stream = GenerationManifest.class.getResourceAsStream(POM_PROPERTIES);
+		if (stream == null) {
+			return "unknown";
+		}
+		
+		try {
+			Properties properties = new Properties();
+			properties.load(stream);
+			return properties.getProperty("version", "unknown");
+		} catch (IOException ex) {
+			return "unknown";
+		} finally {
+			IOUtils.closeQuietly(stream);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+
+import com.github.aureliano.cgraml.code.builder.IBuilder;
+
+/**
+ * Per-phase timing and allocation metrics of a run. It is written as JSON to the working directory, so it can be
+ * trended by CI, and summarized as a table in the build log.
+ */
+public class GenerationReport {
+	
+	public static final String FILE_NAME = "report.json";
+	
+	private static final String ROW_FORMAT = "%-34s %-24s %10s %8s %14s %16s";
+	
+	private long wallMillis;
+	private int threads;
+	private List<PhaseReport> phases;
+	
+	private long startNanos;
+	
+	public GenerationReport() {
+		this.phases = new ArrayList<PhaseReport>();
+	}
+	
+	public static GenerationReport start(int threads) {
+		GenerationReport report = new GenerationReport();
+		report.threads = threads;
+		report.startNanos = System.nanoTime();
+		
+		return report;
+	}
+	
+	public GenerationReport stop() {
+		this.wallMillis = (System.nanoTime() - this.startNanos) / 1000000;
+		return this;
+	}
+	
+	public void addPhase(PhaseReport phase) {
+		synchronized (this.phases) {
+			this.phases.add(phase);
+		}
+	}
+	
+	public void save(File directory) {
+		File file = new File(directory, FILE_NAME);
+		try {
+			directory.mkdirs();
+			IBuilder.OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, this);
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	public void print(Log logger) {
+		logger.info("------------------------------------------------------------------------");
+		logger.info(String.format(ROW_FORMAT, "Phase", "RAML file", "Time (ms)", "Classes", "Bytes written", "Allocated (KB)"));
+		
+		for (PhaseReport phase : this.getPhases()) {
+			logger.info(String.format(ROW_FORMAT, phase.getName(), (phase.getRamlFile() == null) ? "-" : phase.getRamlFile(),
+					phase.getWallMillis(), phase.getClasses(), phase.getBytesWritten(),
+					(phase.getAllocatedBytes() < 0) ? "n/a" : String.valueOf(phase.getAllocatedBytes() / 1024)));
+		}
+		
+		logger.info(String.format(ROW_FORMAT, "Total", "", this.wallMillis, this.getClasses(), this.getBytesWritten(), ""));
+	}
+	
+	public int getClasses() {
+		int classes = 0;
+		for (PhaseReport phase : this.getPhases()) {
+			classes += phase.getClasses();
+		}
+		
+		return classes;
+	}
+	
+	public long getBytesWritten() {
+		long bytes = 0;
+		for (PhaseReport phase : this.getPhases()) {
+			bytes += phase.getBytesWritten();
+		}
+		
+		return bytes;
+	}
+	
+	public long getWallMillis() {
+		return this.wallMillis;
+	}
+	
+	public GenerationReport withWallMillis(long wallMillis) {
+		this.wallMillis = wallMillis;
+		return this;
+	}
+	
+	public int getThreads() {
+		return this.threads;
+	}
+	
+	public GenerationReport withThreads(int threads) {
+		this.threads = threads;
+		return this;
+	}
+	
+	public List<PhaseReport> getPhases() {
+		synchronized (this.phases) {
+			return new ArrayList<PhaseReport>(this.phases);
+		}
+	}
+	
+	public GenerationReport withPhases(List<PhaseReport> phases) {
+		this.phases = phases;
+		return this;
+	}
+}
@@ -0,0 +1,139 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.github.aureliano.cgraml.code.meta.ActionMeta;
+import com.github.aureliano.cgraml.code.meta.FieldMeta;
+import com.github.aureliano.cgraml.code.meta.ServiceMeta;
+import com.github.aureliano.cgraml.helper.FileHelper;
+
+/**
+ * Part of a RAML file generated as a whole: a schema and its model, a resource and its service or parameters class,
+ * or the API map. Inputs are everything the builders read for the unit and make up its hash; references are names of
+ * other schemas, resource types and linked data paths the unit uses, which are recorded in the dependency index but
+ * do not change the generated code by themselves.
+ */
+public class GenerationUnit {
+	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	private String name;
+	private Map<String, String> inputs;
+	private Set<String> references;
+	
+	public GenerationUnit(String name) {
+		this.name = name;
+		this.inputs = new TreeMap<String, String>();
+		this.references = new TreeSet<String>();
+	}
+	
+	public static GenerationUnit forSchema(String entity, String json) {
+		return new GenerationUnit("schema:" + entity).withInput("schema:" + entity, json);
+	}
+	
+	public static GenerationUnit forService(String kind, ServiceMeta service) {
+		String uri = resourceUri(service);
+		GenerationUnit unit = new GenerationUnit(kind + ":" + uri).withInput("resource:" + uri, signature(service));
+		
+		unit.withReference("resourceType:" + service.getResourceType());
+		unit.withReference("model:" + service.getType());
+		unit.withReference("model:" + service.getGenericType());
+		
+		return unit;
+	}
+	
+	public static GenerationUnit forApiMap(String baseUri, Collection<ServiceMeta> services) {
+		GenerationUnit unit = new GenerationUnit("api").withInput("baseUri", baseUri);
+		for (ServiceMeta service : services) {
+			unit.withInput("resource:" + resourceUri(service), signature(service));
+		}
+		
+		return unit;
+	}
+	
+	public GenerationUnit withInput(String dependency, String content) {
+		this.inputs.put(dependency, String.valueOf(content));
+		return this;
+	}
+	
+	public GenerationUnit withReference(String dependency) {
+		if (!dependency.endsWith(":null")) {
+			this.references.add(dependency);
+		}
+		return this;
+	}
+	
+	public String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * @return Names of the inputs and references of the unit.
+	 */
+	public Set<String> getDependencies() {
+		Set<String> dependencies = new TreeSet<String>(this.inputs.keySet());
+		dependencies.addAll(this.references);
+		
+		return dependencies;
+	}
+	
+	public String getHash() {
+		MessageDigest digest = FileHelper.createDigest();
+		digest.update(this.name.getBytes(UTF_8));
+		
+		for (String dependency : this.inputs.keySet()) {
+			digest.update((byte) 0);
+			digest.update(dependency.getBytes(UTF_8));
+			digest.update((byte) 0);
+			digest.update(this.inputs.get(dependency).getBytes(UTF_8));
+		}
+		
+		return FileHelper.toHex(digest.digest());
+	}
+	
+	/**
+	 * @return The URI of the resource from the root of the RAML file, which identifies it even when resources of
+	 * different parents share a relative URI.
+	 */
+	public static String resourceUri(ServiceMeta service) {
+		StringBuilder uri = new StringBuilder(service.getUri());
+		for (ServiceMeta parent = service.getParentService(); parent != null; parent = parent.getParentService()) {
+			uri.insert(0, parent.getUri());
+		}
+		
+		return uri.toString();
+	}
+	
+	/**
+	 * Describes everything service builders read from a resource: its own types and actions and the URIs of its
+	 * nested resources. Resource types and traits are already applied to the actions by the RAML parser.
+	 */
+	private static String signature(ServiceMeta service) {
+		StringBuilder signature = new StringBuilder()
+			.append(service.getUri()).append("|")
+			.append(service.getType()).append("|")
+			.append(service.getGenericType()).append("|")
+			.append(service.getResourceType());
+		
+		for (ActionMeta action : service.getActions()) {
+			signature.append("\naction:").append(action.getMethod()).append("|").append(action.isTypedCollection());
+			for (FieldMeta parameter : action.getParameters()) {
+				signature.append("\nparameter:").append(parameter.getName()).append("|").append(parameter.getType())
+					.append("|").append(parameter.getGenericType()).append("|").append(parameter.getDefaultValue());
+			}
+		}
+		
+		for (ServiceMeta next : service.getNextServices()) {
+			signature.append("\nresource:").append(next.getUri()).append("|").append(next.getType())
+				.append("|").append(next.getGenericType());
+		}
+		
+		return signature.toString();
+	}
+}
@@ -1,44 +1,383 @@
 package com.github.aureliano.cgraml.code.gen;
 
 import java.io.File;
-import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.maven.plugin.logging.Log;
-import org.raml.model.Raml;
 
+import com.github.aureliano.cgraml.helper.FileHelper;
 import com.github.aureliano.cgraml.helper.RamlHelper;
-import com.github.aureliano.cgraml.helper.ValidationHelper;
 
 public class Generator {
 
 	private Configuration configuration;
-	public static Map<?, ?> currentRamlMap;
+	private GenerationManifest manifest;
+	private DependencyIndex dependencyIndex;
+	private DocumentCache documentCache;
+	private ValidationCache validationCache;
+	private Map<String, List<File>> sourceFiles;
 	
 	public Generator() {
 		super();
 	}
 	
+	/**
+	 * Generates sources from every RAML file, with the state of the previous execution read from the working directory.
+	 * The state is then kept in memory for {@link #run(Collection)}.
+	 */
 	public void run() {
+		this.manifest = this.loadManifest();
+		this.dependencyIndex = this.isIncremental() ? DependencyIndex.load(this.configuration.getExecutionDirectory(),
+				this.configurationFingerprint()) : null;
+		this.documentCache = this.isIncremental() ? new DocumentCache(this.configuration.getExecutionDirectory()) : null;
+		this.validationCache = (this.configuration.getExecutionDirectory() == null) ? null :
+				ValidationCache.load(this.configuration.getExecutionDirectory());
+		this.sourceFiles = null;
+		
+		this.execute(Collections.<String>emptySet());
+	}
+	
+	/**
+	 * Generates sources again after the given files changed, with the state kept in memory by the previous run. RAML
+	 * files which were generated then and which neither changed nor include a changed file are not read again. When
+	 * there is no such state (first run, non incremental generation or failed generation) every RAML file is checked,
+	 * as by {@link #run()}.
+	 */
+	public void run(Collection<File> changedFiles) {
+		if (this.sourceFiles == null) {
+			this.run();
+		} else {
+			this.execute(this.findUnchangedFiles(changedFiles));
+		}
+	}
+	
+	/**
+	 * @return The files the RAML files were read from when they were last generated: the RAML files themselves and
+	 * the files they include.
+	 */
+	public Set<File> getSourceFiles() {
+		Set<File> files = new HashSet<File>();
+		if (this.sourceFiles != null) {
+			for (List<File> ramlFileSources : this.sourceFiles.values()) {
+				files.addAll(ramlFileSources);
+			}
+		}
+		
+		return files;
+	}
+	
+	private void execute(Set<String> unchangedFiles) {
 		File[] ramlFiles = this.getRamlFiles();
 		if (ramlFiles.length == 0) {
-			throw new RuntimeException("There is no RAML file in " + this.configuration.getSourceDirectory().getPath());
+			throw new RuntimeException("There is no RAML file matching " + this.configuration.getIncludes() + " in " +
+					this.configuration.getSourceDirectory().getPath());
 		}
 		
+		Map<String, List<File>> previousSourceFiles = this.sourceFiles;
+		this.sourceFiles = null;
+		
+		ForkJoinPool pool = (this.configuration.getThreads() > 1) ? new ForkJoinPool(this.configuration.getThreads()) : null;
+		try {
+			this.run(ramlFiles, new GenerationContext(this.configuration), pool, unchangedFiles, previousSourceFiles);
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+	}
+	
+	private void run(File[] ramlFiles, GenerationContext context, ForkJoinPool pool, Set<String> unchangedFiles,
+			Map<String, List<File>> previousSourceFiles) {
 		Log logger = this.configuration.getLogger();
+		GeneratedSourcesWriter sourcesWriter = context.getSourcesWriter();
+		GenerationReport report = context.getReport();
+		GenerationManifest manifest = this.manifest;
+		DependencyIndex dependencyIndex = this.dependencyIndex;
+		context.withDependencyIndex(dependencyIndex);
+		DocumentCache documentCache = this.documentCache;
+		ValidationCache validationCache = this.validationCache;
+		Set<String> previousClasses = (manifest == null) ? new HashSet<String>() : manifest.getAllGeneratedClasses();
+		List<RamlSource> sources = new ArrayList<RamlSource>();
+		Set<String> ramlFileNames = new HashSet<String>();
+
 		for (File ramlFile : ramlFiles) {
-			logger.info("------------------------------------------------------------------------");
-			logger.info("Validating and Parsing RAML file " + ramlFile.getPath());
+			RamlSource source = new RamlSource(ramlFile, this.getRamlFileName(ramlFile));
+			source.unchanged = unchangedFiles.contains(source.name);
+			sources.add(source);
+			ramlFileNames.add(source.name);
+		}
+
+		try {
+			this.validateFiles(sources, context, manifest, documentCache, validationCache, pool);
+		} catch (RuntimeException ex) {
+			this.keepSourceFiles(sources, previousSourceFiles, false);
+			throw ex;
+		}
+		this.generateFiles(sources, context, manifest, documentCache, pool);
+			
+		for (String conflict : sourcesWriter.getConflicts()) {
+			logger.warn(conflict);
+		}
+
+		if (manifest != null) {
+			this.removeDeletedRamlFiles(manifest, ramlFileNames);
+			previousClasses.removeAll(manifest.getAllGeneratedClasses());
+		}
+		
+		PhaseReport phase = PhaseReport.start("writing", null);
+		sourcesWriter.flush();
+		List<File> deletedFiles = sourcesWriter.deleteSources(previousClasses);
+		report.addPhase(phase.stop().withBytesWritten(sourcesWriter.getBytesWritten()));
+		
+		for (File file : deletedFiles) {
+			logger.info("Deleted stale source file: " + file.getPath());
+		}
+		
+		logger.info("Source files in " + sourcesWriter.getTarget().getPath() + ": " + sourcesWriter.getWrittenCount() + " written, " +
+				sourcesWriter.getUnchangedCount() + " unchanged, " + deletedFiles.size() + " deleted.");
+		
+		if (manifest != null) {
+			manifest.save();
+		}
+		
+		if (dependencyIndex != null) {
+			dependencyIndex.save();
+		}
+		
+		report.stop().print(logger);
+		if (this.configuration.getExecutionDirectory() != null) {
+			report.save(this.configuration.getExecutionDirectory());
+		}
+		
+		if (this.isIncremental()) {
+			this.keepSourceFiles(sources, previousSourceFiles, true);
+		}
+	}
+	
+	/**
+	 * Remembers the files every RAML file was read from, for the next {@link #run(Collection)}. Files left unchanged by
+	 * this run keep the ones known before. After a failed validation no other file is remembered, so they are all
+	 * checked again next time.
+	 */
+	private void keepSourceFiles(List<RamlSource> sources, Map<String, List<File>> previousSourceFiles, boolean generated) {
+		Map<String, List<File>> files = new HashMap<String, List<File>>();
+		for (RamlSource source : sources) {
+			if (source.unchanged) {
+				files.put(source.name, previousSourceFiles.get(source.name));
+			} else if (generated) {
+				List<File> ramlFileSources = new ArrayList<File>();
+				ramlFileSources.add(FileHelper.normalize(source.file));
+				for (File include : RamlHelper.findIncludes(source.file)) {
+					ramlFileSources.add(FileHelper.normalize(include));
+				}
+				
+				files.put(source.name, ramlFileSources);
+			}
+		}
+		
+		this.sourceFiles = files;
+	}
+	
+	private Set<String> findUnchangedFiles(Collection<File> changedFiles) {
+		Set<String> unchangedFiles = new HashSet<String>();
+		Set<File> changed = new HashSet<File>();
+		for (File file : changedFiles) {
+			File normalized = FileHelper.normalize(file);
+			if (normalized.isDirectory()) {
+				return unchangedFiles;
+			}
 			
-			ValidationHelper.validateRamlFile(ramlFile);
-			Raml raml = RamlHelper.parseModel(ramlFile);
-			currentRamlMap = RamlHelper.parseYaml(ramlFile);
+			changed.add(normalized);
+		}
+		
+		for (Map.Entry<String, List<File>> entry : this.sourceFiles.entrySet()) {
+			if (Collections.disjoint(entry.getValue(), changed)) {
+				unchangedFiles.add(entry.getKey());
+			}
+		}
+		
+		return unchangedFiles;
+	}
+	
+	/**
+	 * Reads the RAML files and validates the ones that changed, concurrently when there is a pool. Files that passed
+	 * validation before with the same content and parser version are not validated again. Validation errors of all
+	 * files are reported together, once every file was validated.
+	 */
+	private void validateFiles(List<RamlSource> sources, final GenerationContext context, final GenerationManifest manifest,
+			final DocumentCache documentCache, final ValidationCache validationCache, ForkJoinPool pool) {
+		this.forEachSource(sources, pool, new SourceAction() {
+			@Override
+			public void execute(RamlSource source) {
+				validateFile(source, context, manifest, documentCache, validationCache);
+			}
+		});
+		
+		List<String> ramlFileNames = new ArrayList<String>();
+		List<RuntimeException> errors = new ArrayList<RuntimeException>();
+		for (RamlSource source : sources) {
+			ramlFileNames.add(source.name);
+			if (source.validationError != null) {
+				errors.add(source.validationError);
+			}
+		}
+		
+		if (validationCache != null) {
+			validationCache.retainFiles(ramlFileNames);
+			validationCache.save();
+		}
+		
+		if (errors.size() == 1) {
+			throw errors.get(0);
+		} else if (errors.size() > 1) {
+			StringBuilder message = new StringBuilder();
+			for (RuntimeException error : errors) {
+				message.append((message.length() == 0) ? "" : "\n").append(error.getMessage());
+			}
+			
+			throw new RuntimeException(message.toString());
+		}
+	}
+	
+	private void validateFile(RamlSource source, GenerationContext context, GenerationManifest manifest, DocumentCache documentCache,
+			ValidationCache validationCache) {
+		Log logger = this.configuration.getLogger();
+		GeneratedSourcesWriter sourcesWriter = context.getSourcesWriter();
+		logger.info("------------------------------------------------------------------------");
+		
+		if (source.unchanged && this.hasGeneratedSources(manifest, sourcesWriter, source.name)) {
+			logger.info("RAML file " + source.file.getPath() + " did not change. Skipping generation.");
+			source.upToDate = true;
+			return;
+		}
+		source.unchanged = false;
+		
+		source.content = FileHelper.readBytes(source.file);
+		source.fingerprint = (manifest == null) ? null : RamlHelper.fingerprint(source.file, source.content, this.configurationFingerprint());
+		
+		if (this.isIncremental() && (this.isUpToDate(manifest, sourcesWriter, source.name, source.fingerprint))) {
+			logger.info("RAML file " + source.file.getPath() + " is up to date. Skipping generation.");
+			source.upToDate = true;
+			source.content = null;
+			return;
+		}
+		
+		logger.info("Validating RAML file " + source.file.getPath());
+		String hash = (validationCache == null) ? null : ValidationCache.hash(source.file, source.content);
+		
+		if (documentCache != null) {
+			source.cacheEntry = documentCache.prepare(source.name, source.file, source.content);
+			source.content = source.cacheEntry.getContent();
+			logger.info("Top level resources read from the document cache: " + source.cacheEntry.getReusedCount() + " of " +
+					source.cacheEntry.getResourceCount() + ".");
+		}
+		
+		PhaseReport phase = PhaseReport.start("validation", source.name);
+		if ((hash != null) && (validationCache.isValid(source.name, hash))) {
+			logger.info("RAML file " + source.file.getPath() + " did not change since it was last validated. Skipping validation.");
+		} else {
+			try {
+				RamlHelper.validateDocument(source.file, source.content);
+			} catch (RuntimeException ex) {
+				source.validationError = ex;
+				return;
+			}
 			
-			for (GeneratorType type : GeneratorType.values()) {
-				logger.info("Generate code for " + type.name() + " layer.");
-				this.buildCodeGenerator(type, raml).execute();
+			if (hash != null) {
+				validationCache.update(source.name, hash);
 			}
 		}
+		
+		context.getReport().addPhase(phase.stop());
+	}
+	
+	/**
+	 * Generates the changed RAML files one after another or, when there is a pool, concurrently. Each file is generated
+	 * with a context of its own, so classes generated by more than one file are reported as conflicts by the sources
+	 * writer instead of being skipped depending on which file came first.
+	 */
+	private void generateFiles(List<RamlSource> sources, final GenerationContext context, final GenerationManifest manifest,
+			final DocumentCache documentCache, ForkJoinPool pool) {
+		final LayerScheduler scheduler = new LayerScheduler(pool);
+		List<RamlSource> changedSources = new ArrayList<RamlSource>();
+		for (RamlSource source : sources) {
+			if (!source.upToDate) {
+				changedSources.add(source);
+			}
+		}
+		
+		this.forEachSource(changedSources, pool, new SourceAction() {
+			@Override
+			public void execute(RamlSource source) {
+				generateFile(source, context, scheduler, manifest, documentCache);
+			}
+		});
+	}
+	
+	private void generateFile(RamlSource source, GenerationContext context, LayerScheduler scheduler, GenerationManifest manifest,
+			DocumentCache documentCache) {
+		this.configuration.getLogger().info("Parsing RAML file " + source.file.getPath());
+		
+		PhaseReport phase = PhaseReport.start("parsing", source.name);
+		RamlDocument document = RamlHelper.parseDocument(source.file, source.content);
+		if (source.cacheEntry != null) {
+			document = documentCache.complete(source.cacheEntry, document);
+		}
+		context.getReport().addPhase(phase.stop());
+		source.content = null;
+		
+		GenerationContext fileContext = context.forRamlFile(source.name);
+		List<String> generatedClasses = this.generateLayers(scheduler, fileContext, document);
+		
+		if (manifest != null) {
+			manifest.update(source.name, source.fingerprint, generatedClasses);
+		}
+		
+		if (fileContext.getDependencyIndex() != null) {
+			fileContext.getDependencyIndex().retainUnits(source.name, fileContext.getUnits());
+		}
+	}
+	
+	private void forEachSource(List<RamlSource> sources, ForkJoinPool pool, final SourceAction action) {
+		if ((pool == null) || (sources.size() < 2)) {
+			for (RamlSource source : sources) {
+				action.execute(source);
+			}
+			
+			return;
+		}
+		
+		final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+		for (final RamlSource source : sources) {
+			tasks.add(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected void compute() {
+					action.execute(source);
+				}
+			});
+		}
+		
+		pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
 	}
 	
 	public Generator withConfiguration(Configuration configuration) {
@@ -51,20 +390,130 @@ public class Generator {
 	}
 	
 	private File[] getRamlFiles() {
-		return this.configuration.getSourceDirectory().listFiles(new FilenameFilter() {
-			@Override
-			public boolean accept(File dir, String name) {
-				return (name.endsWith(".raml"));
-			}
-		});
+		List<File> files = FileHelper.findFiles(this.configuration.getSourceDirectory(), this.configuration.getIncludes(),
+				this.configuration.getExcludes());
+		
+		return files.toArray(new File[files.size()]);
+	}
+		
+	/**
+	 * RAML files are identified by their path relative to the source directory, since files of different
+	 * subdirectories may have the same name.
+	 */
+	private String getRamlFileName(File ramlFile) {
+		return FileHelper.relativePath(this.configuration.getSourceDirectory(), ramlFile);
 	}
 	
-	private ICodeGenerator buildCodeGenerator(GeneratorType type, Raml raml) {
+	private ICodeGenerator buildCodeGenerator(GeneratorType type, GenerationContext context, RamlDocument document) {
 		return GeneratorFactory
 			.createGenerator(type)
-				.withRaml(raml)
+				.withContext(context)
+				.withDocument(document)
 				.withLogger(this.configuration.getLogger())
 				.withBasePackageName(this.configuration.getBasePackageName())
 				.withGeneratedSourcesTarget(this.configuration.getGeneratedSourcesTarget());
 	}
+	
+	private List<String> generateLayers(LayerScheduler scheduler, final GenerationContext context, final RamlDocument document) {
+		final Map<GeneratorType, List<String>> layerClasses = Collections.synchronizedMap(
+				new EnumMap<GeneratorType, List<String>>(GeneratorType.class));
+		
+		scheduler.run(Arrays.asList(GeneratorType.values()), new LayerScheduler.LayerAction() {
+			@Override
+			public void execute(GeneratorType type) {
+				configuration.getLogger().info("Generate code for " + type.name() + " layer.");
+				PhaseReport phase = PhaseReport.start(type.name(), context.getRamlFileName());
+				
+				ICodeGenerator generator = buildCodeGenerator(type, context, document);
+				generator.execute();
+				layerClasses.put(type, generator.getGeneratedClasses());
+				
+				context.getReport().addPhase(phase.stop().withClasses(generator.getGeneratedClasses().size()));
+			}
+		});
+		
+		List<String> generatedClasses = new ArrayList<String>();
+		for (GeneratorType type : GeneratorType.values()) {
+			generatedClasses.addAll(layerClasses.get(type));
+		}
+		
+		return generatedClasses;
+	}
+
+	/**
+	 * The manifest is kept even without incremental generation, since the classes it lists are the ones to delete when
+	 * they are not generated anymore. Only incremental generation skips RAML files it finds up to date.
+	 */
+	private GenerationManifest loadManifest() {
+		if (this.configuration.getWorkingDirectory() == null) {
+			return null;
+		}
+
+		return GenerationManifest.load(this.configuration.getExecutionDirectory());
+	}
+
+	private boolean isIncremental() {
+		return (this.manifest != null) && this.configuration.isIncremental();
+	}
+
+	private String configurationFingerprint() {
+		return new StringBuilder()
+			.append(GenerationManifest.VERSION)
+			.append("|").append(GenerationManifest.PLUGIN_VERSION)
+			.append("|").append(this.configuration.getSourceDirectory())
+			.append("|").append(this.configuration.getBasePackageName())
+			.append("|").append(this.configuration.getGeneratedSourcesTarget())
+			.toString();
+	}
+
+	private boolean isUpToDate(GenerationManifest manifest, GeneratedSourcesWriter sourcesWriter, String ramlFileName, String fingerprint) {
+		return manifest.isUpToDate(ramlFileName, fingerprint) && this.hasGeneratedSources(manifest, sourcesWriter, ramlFileName);
+	}
+
+	private boolean hasGeneratedSources(GenerationManifest manifest, GeneratedSourcesWriter sourcesWriter, String ramlFileName) {
+		for (String className : manifest.getGeneratedClasses(ramlFileName)) {
+			if (!sourcesWriter.getSourceFile(className).isFile()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void removeDeletedRamlFiles(GenerationManifest manifest, Set<String> ramlFileNames) {
+		for (String ramlFileName : manifest.getRamlFiles()) {
+			if (!ramlFileNames.contains(ramlFileName)) {
+				this.configuration.getLogger().info("RAML file " + ramlFileName + " was removed.");
+				manifest.remove(ramlFileName);
+				if (this.dependencyIndex != null) {
+					this.dependencyIndex.remove(ramlFileName);
+				}
+			}
+		}
+	}
+	
+	private interface SourceAction {
+		
+		void execute(RamlSource source);
+	}
+	
+	/**
+	 * A RAML file on its way through validation and generation.
+	 */
+	private static class RamlSource {
+		
+		private File file;
+		private String name;
+		private byte[] content;
+		private String fingerprint;
+		private DocumentCache.Entry cacheEntry;
+		private RuntimeException validationError;
+		private boolean upToDate;
+		private boolean unchanged;
+		
+		public RamlSource(File file, String name) {
+			this.file = file;
+			this.name = name;
+		}
+	}
 }
\ No newline at end of file
@@ -17,6 +17,8 @@ public final class GeneratorFactory {
 			case SERVICE_FETCH_INTERFACE : return new ServiceFetchInterfaceGenerator();
 			case SERVICE_PARAMETERS_INTERFACE : return new ServiceParametersInterfaceGenerator();
 			case EAGER_DATA_LIST : return new EagerDataListGenerator();
+			case CLIENT_CONTEXT : return new ClientContextGenerator();
+			case JSON_CONTEXT : return new JsonContextGenerator();
 			default : return null;
 		}
 	}
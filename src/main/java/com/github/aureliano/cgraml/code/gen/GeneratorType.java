@@ -10,5 +10,23 @@ public enum GeneratorType {
 	API_MAP_SERVICES,
 	MODEL_SCHEMA_INTERFACE,
 	MODEL_COLLECTION_SCHEMA_INTERFACE,
-	EAGER_DATA_LIST
+	EAGER_DATA_LIST,
+	CLIENT_CONTEXT,
+	JSON_CONTEXT;
+	
+	/**
+	 * Layers whose generated types are referenced by the code of this layer, so they must be generated first.
+	 */
+	public GeneratorType[] getDependencies() {
+		switch (this) {
+			case MODEL : return new GeneratorType[] { MODEL_SCHEMA_INTERFACE, MODEL_COLLECTION_SCHEMA_INTERFACE };
+			case SERVICE : return new GeneratorType[] { MODEL, SERVICE_PARAMETERS, SERVICE_FETCH_INTERFACE, JSON_CONTEXT };
+			case SERVICE_FETCH_INTERFACE : return new GeneratorType[] { MODEL_COLLECTION_SCHEMA_INTERFACE, SERVICE_PARAMETERS_INTERFACE };
+			case SERVICE_PARAMETERS : return new GeneratorType[] { SERVICE_PARAMETERS_INTERFACE };
+			case API_MAP_SERVICES : return new GeneratorType[] { SERVICE, EAGER_DATA_LIST, CLIENT_CONTEXT };
+			case MODEL_COLLECTION_SCHEMA_INTERFACE : return new GeneratorType[] { MODEL_SCHEMA_INTERFACE };
+			case EAGER_DATA_LIST : return new GeneratorType[] { SERVICE_FETCH_INTERFACE, MODEL_COLLECTION_SCHEMA_INTERFACE };
+			default : return new GeneratorType[0];
+		}
+	}
 }
\ No newline at end of file
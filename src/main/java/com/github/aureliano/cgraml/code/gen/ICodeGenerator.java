@@ -1,6 +1,7 @@
 package com.github.aureliano.cgraml.code.gen;
 
 import java.io.File;
+import java.util.List;
 
 import org.apache.maven.plugin.logging.Log;
 import org.raml.model.Raml;
@@ -11,6 +12,10 @@ public interface ICodeGenerator {
 	
 	public abstract ICodeGenerator withRaml(Raml raml);
 	
+	public abstract ICodeGenerator withDocument(RamlDocument document);
+	
+	public abstract ICodeGenerator withContext(GenerationContext context);
+	
 	public abstract ICodeGenerator withLogger(Log logger);
 	
 	public abstract ICodeGenerator withBasePackageName(String basePackageName);
@@ -19,11 +24,17 @@ public interface ICodeGenerator {
 	
 	public abstract Raml getRaml();
 	
+	public abstract RamlDocument getDocument();
+	
+	public abstract GenerationContext getContext();
+	
 	public abstract Log getLogger();
 	
 	public abstract String getBasePackageName();
 	
 	public abstract File getGeneratedSourcesTarget();
 	
+	public abstract List<String> getGeneratedClasses();
+	
 	public static final File DEFAULT_GEN_DIRECTORY = new File("cgraml-maven-plugin");
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import com.github.aureliano.cgraml.code.builder.CodeBuilder;
+import com.github.aureliano.cgraml.code.builder.JsonContextBuilder;
+
+public class JsonContextGenerator extends AbstractCodeGenerator {
+	
+	public static final String CLASS_NAME = "JsonContext";
+	
+	public JsonContextGenerator() {
+		super();
+	}
+	
+	@Override
+	public void execute() {
+		JsonContextBuilder builder = CodeBuilder.create(GeneratorType.JSON_CONTEXT)
+				.withContext(super.context)
+				.parse(super.basePackageName + ".gen.service", CLASS_NAME, null)
+				.build();
+		
+		super.registerGeneratedClass(builder.getClazz());
+	}
+}
@@ -0,0 +1,207 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs generator layers in the order given by {@link GeneratorType#getDependencies()}. Without a pool the layers run
+ * one after another in topological order, otherwise every layer runs on the fork-join pool as soon as the layers it
+ * depends on are done. When a layer fails, the layers depending on it are skipped, but the run only ends once every
+ * other layer is done, so that no layer still writes to the shared state after the failure is thrown.
+ */
+public class LayerScheduler {
+	
+	private ForkJoinPool pool;
+	
+	public LayerScheduler(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+	
+	public void run(Collection<GeneratorType> types, LayerAction action) {
+		List<GeneratorType> order = topologicalOrder(types);
+		if (this.pool == null) {
+			for (GeneratorType type : order) {
+				action.execute(type);
+			}
+			
+			return;
+		}
+		
+		Execution execution = new Execution(order.size());
+		Map<GeneratorType, LayerTask> tasksByType = new EnumMap<GeneratorType, LayerTask>(GeneratorType.class);
+		List<LayerTask> readyTasks = new ArrayList<LayerTask>();
+		
+		for (GeneratorType type : order) {
+			LayerTask task = new LayerTask(type, action, execution);
+			for (GeneratorType dependency : type.getDependencies()) {
+				LayerTask dependencyTask = tasksByType.get(dependency);
+				if (dependencyTask != null) {
+					dependencyTask.dependents.add(task);
+					task.pendingDependencies.incrementAndGet();
+				}
+			}
+		
+			tasksByType.put(type, task);
+			if (task.pendingDependencies.get() == 0) {
+				readyTasks.add(task);
+			}
+		}
+				
+		// RAML files generated concurrently already run their layers on the pool.
+		boolean inPool = (ForkJoinTask.getPool() == this.pool);
+		for (LayerTask task : readyTasks) {
+			if (inPool) {
+				task.fork();
+			} else {
+				this.pool.execute(task);
+			}
+		}
+		
+		execution.await();
+	}
+	
+	public static List<GeneratorType> topologicalOrder(Collection<GeneratorType> types) {
+		List<GeneratorType> order = new ArrayList<GeneratorType>();
+		Set<GeneratorType> visiting = EnumSet.noneOf(GeneratorType.class);
+		
+		for (GeneratorType type : types) {
+			visit(type, types, order, visiting);
+		}
+		
+		return order;
+	}
+	
+	private static void visit(GeneratorType type, Collection<GeneratorType> types, List<GeneratorType> order, Set<GeneratorType> visiting) {
+		if (order.contains(type)) {
+			return;
+		} else if (!visiting.add(type)) {
+			throw new IllegalStateException("Cyclic dependency between generator layers at " + type.name());
+		}
+		
+		for (GeneratorType dependency : type.getDependencies()) {
+			if (types.contains(dependency)) {
+				visit(dependency, types, order, visiting);
+			}
+		}
+		
+		visiting.remove(type);
+		order.add(type);
+	}
+	
+	public static interface LayerAction {
+		
+		public abstract void execute(GeneratorType type);
+	}
+	
+	/**
+	 * Tracks the layers of a run. Waiting for it is a managed block, so the pool adds a worker while a RAML file task
+	 * waits for its layers.
+	 */
+	private static class Execution implements ForkJoinPool.ManagedBlocker {
+		
+		private CountDownLatch remaining;
+		private AtomicReference<Throwable> failure;
+		
+		public Execution(int layers) {
+			this.remaining = new CountDownLatch(layers);
+			this.failure = new AtomicReference<Throwable>();
+		}
+		
+		public void done() {
+			this.remaining.countDown();
+		}
+		
+		public void fail(Throwable ex) {
+			this.failure.compareAndSet(null, ex);
+		}
+		
+		public void await() {
+			try {
+				ForkJoinPool.managedBlock(this);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(ex);
+			}
+			
+			Throwable ex = this.failure.get();
+			if (ex instanceof RuntimeException) {
+				throw (RuntimeException) ex;
+			} else if (ex instanceof Error) {
+				throw (Error) ex;
+			} else if (ex != null) {
+				throw new RuntimeException(ex);
+			}
+		}
+		
+		@Override
+		public boolean block() throws InterruptedException {
+			this.remaining.await();
+			return true;
+		}
+		
+		@Override
+		public boolean isReleasable() {
+			return (this.remaining.getCount() == 0);
+		}
+	}
+	
+	/**
+	 * A layer is forked by the last of its dependencies to finish, so no task ever waits for another one.
+	 */
+	private static class LayerTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private GeneratorType type;
+		private LayerAction action;
+		private Execution execution;
+		private List<LayerTask> dependents;
+		private AtomicInteger pendingDependencies;
+		private volatile boolean skipped;
+		
+		public LayerTask(GeneratorType type, LayerAction action, Execution execution) {
+			this.type = type;
+			this.action = action;
+			this.execution = execution;
+			this.dependents = new ArrayList<LayerTask>();
+			this.pendingDependencies = new AtomicInteger();
+		}
+		
+		@Override
+		protected void compute() {
+			boolean failed = this.skipped;
+			if (!failed) {
+				try {
+					this.action.execute(this.type);
+				} catch (Throwable ex) {
+					this.execution.fail(ex);
+					failed = true;
+				}
+			}
+			
+			// Skipped layers are still forked, so that every layer of the run is done exactly once.
+			for (LayerTask dependent : this.dependents) {
+				if (failed) {
+					dependent.skipped = true;
+				}
+				
+				if (dependent.pendingDependencies.decrementAndGet() == 0) {
+					dependent.fork();
+				}
+			}
+			
+			this.execution.done();
+		}
+	}
+}
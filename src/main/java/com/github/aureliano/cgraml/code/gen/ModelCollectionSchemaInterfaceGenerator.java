@@ -2,7 +2,6 @@ package com.github.aureliano.cgraml.code.gen;
 
 import com.github.aureliano.cgraml.code.builder.CodeBuilder;
 import com.github.aureliano.cgraml.code.builder.ModelCollectionSchemaInterfaceBuilder;
-import com.github.aureliano.cgraml.code.meta.ClassMeta;
 
 public class ModelCollectionSchemaInterfaceGenerator extends AbstractCodeGenerator {
 
@@ -14,12 +13,10 @@ public class ModelCollectionSchemaInterfaceGenerator extends AbstractCodeGenerat
 	public void execute() {
 		ModelCollectionSchemaInterfaceBuilder builder = CodeBuilder
 			.create(GeneratorType.MODEL_COLLECTION_SCHEMA_INTERFACE)
+			.withContext(super.context)
 			.parse(super.basePackageName + ".gen", "ICollectionModel", null)
 			.build();
 		
-		ClassMeta clazz = builder.getClazz();
-
-		super.logger.info("Generated class: " + clazz.getCanonicalClassName());
-		super.logger.debug(clazz.toString());
+		super.registerGeneratedClass(builder.getClazz());
 	}
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package com.github.aureliano.cgraml.code.gen;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.github.aureliano.cgraml.code.builder.CodeBuilder;
 import com.github.aureliano.cgraml.code.builder.ModelBuilder;
-import com.github.aureliano.cgraml.code.meta.ClassMeta;
 
 public class ModelGenerator extends AbstractCodeGenerator {
 	
@@ -20,23 +22,40 @@ public class ModelGenerator extends AbstractCodeGenerator {
 			return;
 		}
 		
+		Map<GenerationUnit, ModelBuilder> builders = new LinkedHashMap<GenerationUnit, ModelBuilder>();
 		for (Map<String, String> schema : schemas) {
 			String entity = schema.keySet().iterator().next();
 			String json = schema.values().iterator().next();
 			
+			GenerationUnit unit = GenerationUnit.forSchema(entity, json);
+			List<String> reusedClasses = super.context.reuse(unit);
+			if (reusedClasses != null) {
+				super.registerReusedClasses(reusedClasses);
+				continue;
+			}
+			
 			try { 
-				ModelBuilder builder = this.createModelBuilder(entity, json).build();
-				ClassMeta clazz = builder.getClazz();
-
-				super.logger.info("Generated class: " + clazz.getCanonicalClassName());
-				super.logger.debug(clazz.toString());
+				builders.put(unit, this.createModelBuilder(entity, json));
 			} catch (IllegalArgumentException ex) {
 				super.logger.warn(ex.getMessage());
 			}
 		}
+		
+		super.buildAll(new ArrayList<ModelBuilder>(builders.values()));
+		for (Map.Entry<GenerationUnit, ModelBuilder> entry : builders.entrySet()) {
+			ModelBuilder builder = entry.getValue();
+			super.registerGeneratedClass(builder.getClazz());
+			
+			for (String path : builder.getLinkedData().keySet()) {
+				entry.getKey()
+					.withReference("linkedData:" + path)
+					.withReference("schema:" + builder.getLinkedData().get(path));
+			}
+			super.context.record(entry.getKey(), Arrays.asList(builder.getClazz().getCanonicalClassName()));
+		}
 	}
 	
 	private ModelBuilder createModelBuilder(String entity, String json) {
-		return CodeBuilder.create(GeneratorType.MODEL).parse(super.basePackageName + ".gen", entity, json);
+		return CodeBuilder.create(GeneratorType.MODEL).withContext(super.context).parse(super.basePackageName + ".gen", entity, json);
 	}
 }
\ No newline at end of file
@@ -2,7 +2,6 @@ package com.github.aureliano.cgraml.code.gen;
 
 import com.github.aureliano.cgraml.code.builder.CodeBuilder;
 import com.github.aureliano.cgraml.code.builder.ModelSchemaInterfaceBuilder;
-import com.github.aureliano.cgraml.code.meta.ClassMeta;
 
 public class ModelSchemaInterfaceGenerator extends AbstractCodeGenerator {
 
@@ -13,12 +12,10 @@ public class ModelSchemaInterfaceGenerator extends AbstractCodeGenerator {
 	@Override
 	public void execute() {
 		ModelSchemaInterfaceBuilder builder = CodeBuilder.create(GeneratorType.MODEL_SCHEMA_INTERFACE)
+			.withContext(super.context)
 			.parse(super.basePackageName + ".gen", "IModel", null)
 			.build();
 		
-		ClassMeta clazz = builder.getClazz();
-
-		super.logger.info("Generated class: " + clazz.getCanonicalClassName());
-		super.logger.debug(clazz.toString());
+		super.registerGeneratedClass(builder.getClazz());
 	}
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Metrics of a single generation phase (validation, parsing, a generator layer or writing sources) of one RAML file.
+ * A phase is started and stopped on the same thread, so allocated bytes are the ones of that thread: builders forked
+ * to other pool threads are not counted. Allocated bytes are -1 when the JVM does not measure them.
+ */
+public class PhaseReport {
+	
+	private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+	
+	private String name;
+	private String ramlFile;
+	private long wallMillis;
+	private int classes;
+	private long bytesWritten;
+	private long allocatedBytes;
+	
+	private long startNanos;
+	private long startAllocatedBytes;
+	
+	public PhaseReport() {
+		super();
+	}
+	
+	public static PhaseReport start(String name, String ramlFile) {
+		PhaseReport phase = new PhaseReport();
+		phase.name = name;
+		phase.ramlFile = ramlFile;
+		phase.startAllocatedBytes = threadAllocatedBytes();
+		phase.startNanos = System.nanoTime();
+		
+		return phase;
+	}
+	
+	public PhaseReport stop() {
+		this.wallMillis = (System.nanoTime() - this.startNanos) / 1000000;
+		
+		long allocated = threadAllocatedBytes();
+		this.allocatedBytes = ((allocated < 0) || (this.startAllocatedBytes < 0)) ? -1 : allocated - this.startAllocatedBytes;
+		
+		return this;
+	}
+	
+	private static long threadAllocatedBytes() {
+		if (!(THREAD_BEAN instanceof com.sun.management.ThreadMXBean)) {
+			return -1;
+		}
+		
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_BEAN;
+		if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+	
+	public String getName() {
+		return this.name;
+	}
+	
+	public PhaseReport withName(String name) {
+		this.name = name;
+		return this;
+	}
+	
+	public String getRamlFile() {
+		return this.ramlFile;
+	}
+	
+	public PhaseReport withRamlFile(String ramlFile) {
+		this.ramlFile = ramlFile;
+		return this;
+	}
+	
+	public long getWallMillis() {
+		return this.wallMillis;
+	}
+	
+	public PhaseReport withWallMillis(long wallMillis) {
+		this.wallMillis = wallMillis;
+		return this;
+	}
+	
+	public int getClasses() {
+		return this.classes;
+	}
+	
+	public PhaseReport withClasses(int classes) {
+		this.classes = classes;
+		return this;
+	}
+	
+	public long getBytesWritten() {
+		return this.bytesWritten;
+	}
+	
+	public PhaseReport withBytesWritten(long bytesWritten) {
+		this.bytesWritten = bytesWritten;
+		return this;
+	}
+	
+	public long getAllocatedBytes() {
+		return this.allocatedBytes;
+	}
+	
+	public PhaseReport withAllocatedBytes(long allocatedBytes) {
+		this.allocatedBytes = allocatedBytes;
+		return this;
+	}
+}
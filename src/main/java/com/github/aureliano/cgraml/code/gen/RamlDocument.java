@@ -0,0 +1,59 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.io.File;
+
+import org.raml.model.Raml;
+
+import com.github.aureliano.cgraml.code.meta.ServiceGraph;
+
+/**
+ * A RAML file loaded once: the validated RAML model, the index of its resources and the graph of services generated
+ * from them.
+ */
+public class RamlDocument {
+	
+	private File file;
+	private Raml raml;
+	private ResourceIndex resourceIndex;
+	private ServiceGraph serviceGraph;
+	
+	public RamlDocument() {
+		super();
+	}
+	
+	public File getFile() {
+		return this.file;
+	}
+	
+	public RamlDocument withFile(File file) {
+		this.file = file;
+		return this;
+	}
+	
+	public Raml getRaml() {
+		return this.raml;
+	}
+	
+	public RamlDocument withRaml(Raml raml) {
+		this.raml = raml;
+		return this;
+	}
+	
+	public ResourceIndex getResourceIndex() {
+		return this.resourceIndex;
+	}
+
+	public RamlDocument withResourceIndex(ResourceIndex resourceIndex) {
+		this.resourceIndex = resourceIndex;
+		return this;
+	}
+	
+	public ServiceGraph getServiceGraph() {
+		return this.serviceGraph;
+	}
+
+	public RamlDocument withServiceGraph(ServiceGraph serviceGraph) {
+		this.serviceGraph = serviceGraph;
+		return this;
+	}
+}
@@ -0,0 +1,94 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+
+/**
+ * Maps the full URI of every resource of a RAML document to its resource type and schemas. It is built once, when the
+ * document is loaded, straight from the YAML node tree: no Java map of the whole document is constructed and no YAML
+ * node is kept once the index is built. It is never changed afterwards, so generator layers running concurrently can
+ * share it without locking.
+ */
+public class ResourceIndex {
+	
+	private static final String RESOURCE_PREFIX = "/";
+	
+	private Map<String, ResourceMapping> mappings;
+	
+	public ResourceIndex(Map<String, ResourceMapping> mappings) {
+		this.mappings = Collections.unmodifiableMap(mappings);
+	}
+	
+	public static ResourceIndex build(Node root) {
+		Map<String, ResourceMapping> mappings = new HashMap<String, ResourceMapping>();
+		if (root instanceof MappingNode) {
+			index((MappingNode) root, "", mappings);
+		}
+		
+		return new ResourceIndex(mappings);
+	}
+	
+	private static void index(MappingNode node, String parentUri, Map<String, ResourceMapping> mappings) {
+		for (NodeTuple tuple : node.getValue()) {
+			String key = scalar(tuple.getKeyNode());
+			if ((key == null) || !key.startsWith(RESOURCE_PREFIX)) {
+				continue;
+			}
+			
+			ResourceMapping mapping = new ResourceMapping()
+				.withUri(parentUri + key)
+				.withRelativeUri(key);
+			mappings.put(mapping.getUri(), mapping);
+			
+			if (tuple.getValueNode() instanceof MappingNode) {
+				MappingNode resource = (MappingNode) tuple.getValueNode();
+				mapType(mapping, value(resource, "type"));
+				index(resource, mapping.getUri(), mappings);
+			}
+		}
+	}
+	
+	private static void mapType(ResourceMapping mapping, Node type) {
+		if (type instanceof ScalarNode) {
+			mapping.withResourceType(scalar(type));
+		} else if ((type instanceof MappingNode) && !((MappingNode) type).getValue().isEmpty()) {
+			NodeTuple tuple = ((MappingNode) type).getValue().get(0);
+			mapping.withResourceType(scalar(tuple.getKeyNode()));
+		
+			if (tuple.getValueNode() instanceof MappingNode) {
+				MappingNode parameters = (MappingNode) tuple.getValueNode();
+				mapping
+					.withSchema(scalar(value(parameters, "schema")))
+					.withCollectionSchema(scalar(value(parameters, "collectionSchema")));
+			}
+		}
+	}
+		
+	private static Node value(MappingNode node, String key) {
+		for (NodeTuple tuple : node.getValue()) {
+			if (key.equals(scalar(tuple.getKeyNode()))) {
+				return tuple.getValueNode();
+			}
+		}
+	
+		return null;
+	}
+	
+	private static String scalar(Node node) {
+		return (node instanceof ScalarNode) ? ((ScalarNode) node).getValue() : null;
+	}
+	
+	public ResourceMapping get(String uri) {
+		return this.mappings.get(uri);
+	}
+	
+	public int size() {
+		return this.mappings.size();
+	}
+}
@@ -0,0 +1,62 @@
+package com.github.aureliano.cgraml.code.gen;
+
+/**
+ * The URI of a resource and the resource type (with its schema parameters) it is declared with.
+ */
+public class ResourceMapping {
+	
+	private String uri;
+	private String relativeUri;
+	private String resourceType;
+	private String schema;
+	private String collectionSchema;
+	
+	public ResourceMapping() {
+		super();
+	}
+	
+	public String getUri() {
+		return this.uri;
+	}
+	
+	public ResourceMapping withUri(String uri) {
+		this.uri = uri;
+		return this;
+	}
+	
+	public String getRelativeUri() {
+		return this.relativeUri;
+	}
+	
+	public ResourceMapping withRelativeUri(String relativeUri) {
+		this.relativeUri = relativeUri;
+		return this;
+	}
+	
+	public String getResourceType() {
+		return this.resourceType;
+	}
+	
+	public ResourceMapping withResourceType(String resourceType) {
+		this.resourceType = resourceType;
+		return this;
+	}
+	
+	public String getSchema() {
+		return this.schema;
+	}
+	
+	public ResourceMapping withSchema(String schema) {
+		this.schema = schema;
+		return this;
+	}
+	
+	public String getCollectionSchema() {
+		return this.collectionSchema;
+	}
+	
+	public ResourceMapping withCollectionSchema(String collectionSchema) {
+		this.collectionSchema = collectionSchema;
+		return this;
+	}
+}
@@ -1,12 +1,15 @@
 package com.github.aureliano.cgraml.code.gen;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.github.aureliano.cgraml.code.builder.CodeBuilder;
 import com.github.aureliano.cgraml.code.builder.ServiceParametersBuilder;
-import com.github.aureliano.cgraml.code.meta.ClassMeta;
 import com.github.aureliano.cgraml.code.meta.ServiceMeta;
-import com.github.aureliano.cgraml.helper.GeneratorHelper;
 
 public class ServiceParametersGenerator  extends AbstractCodeGenerator {
 
@@ -16,26 +19,41 @@ public class ServiceParametersGenerator  extends AbstractCodeGenerator {
 	
 	@Override
 	public void execute() {
-		Set<ServiceMeta> services = GeneratorHelper.getMappedServices(super.raml.getResources().values());
-		if (services.isEmpty()) {
+		if (super.document.getServiceGraph().getServices().isEmpty()) {
 			super.logger.warn("There's not any service/resource mapped. Skipping service parameters generation.");
 			return;
 		}
 
+		for (Set<ServiceMeta> services : super.getServiceBatches()) {
+			this.generate(services);
+		}
+	}
+	
+	private void generate(Set<ServiceMeta> services) {
+		Map<GenerationUnit, ServiceParametersBuilder> builders = new LinkedHashMap<GenerationUnit, ServiceParametersBuilder>();
 		for (ServiceMeta service : services) {			
+			GenerationUnit unit = GenerationUnit.forService("parameters", service);
+			List<String> reusedClasses = super.context.reuse(unit);
+			if (reusedClasses != null) {
+				super.registerReusedClasses(reusedClasses);
+				continue;
+			}
+			
 			try { 
-				ServiceParametersBuilder builder = this.createServiceBuilder(service).build();
-				ClassMeta clazz = builder.getClazz();
-
-				super.logger.info("Generated class: " + clazz.getCanonicalClassName());
-				super.logger.debug(clazz.toString());
+				builders.put(unit, this.createServiceBuilder(service));
 			} catch (IllegalArgumentException ex) {
 				super.logger.warn(ex.getMessage());
 			}
 		}
+		
+		super.buildAll(new ArrayList<ServiceParametersBuilder>(builders.values()));
+		for (Map.Entry<GenerationUnit, ServiceParametersBuilder> entry : builders.entrySet()) {
+			super.registerGeneratedClass(entry.getValue().getClazz());
+			super.context.record(entry.getKey(), Arrays.asList(entry.getValue().getClazz().getCanonicalClassName()));
+		}
 	}
 	
 	private ServiceParametersBuilder createServiceBuilder(ServiceMeta service) {
-		return CodeBuilder.create(GeneratorType.SERVICE_PARAMETERS).parse(super.basePackageName + ".gen", service.getUri(), service);
+		return CodeBuilder.create(GeneratorType.SERVICE_PARAMETERS).withContext(super.context).parse(super.basePackageName + ".gen", service.getUri(), service);
 	}
 }
\ No newline at end of file
@@ -2,7 +2,6 @@ package com.github.aureliano.cgraml.code.gen;
 
 import com.github.aureliano.cgraml.code.builder.CodeBuilder;
 import com.github.aureliano.cgraml.code.builder.ServiceParametersInterfaceBuilder;
-import com.github.aureliano.cgraml.code.meta.ClassMeta;
 
 public class ServiceParametersInterfaceGenerator extends AbstractCodeGenerator {
 
@@ -16,12 +15,10 @@ public class ServiceParametersInterfaceGenerator extends AbstractCodeGenerator {
 	public void execute() {
 		ServiceParametersInterfaceBuilder builder = CodeBuilder
 				.create(GeneratorType.SERVICE_PARAMETERS_INTERFACE)
+				.withContext(super.context)
 				.parse(super.basePackageName + ".gen.parameters", CLASS_NAME, null)
 				.build();
 			
-			ClassMeta clazz = builder.getClazz();
-
-			super.logger.info("Generated class: " + clazz.getCanonicalClassName());
-			super.logger.debug(clazz.toString());
+			super.registerGeneratedClass(builder.getClazz());
 	}
 }
\ No newline at end of file
@@ -0,0 +1,178 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import com.github.aureliano.cgraml.helper.FileHelper;
+import com.github.aureliano.cgraml.helper.RamlHelper;
+
+/**
+ * Watches the source directory tree, and the files included by the RAML files wherever they are, for changes which
+ * require a new generation. Changes of any other file (i.e. generated sources or the manifest when the source
+ * directory is the project base directory) are ignored.
+ */
+public class SourceWatcher implements Closeable {
+	
+	private Configuration configuration;
+	private WatchService watchService;
+	private Map<WatchKey, Path> directories;
+	private Set<File> includedFiles;
+	
+	public SourceWatcher(Configuration configuration) {
+		this.configuration = configuration;
+		this.directories = new HashMap<WatchKey, Path>();
+		this.includedFiles = new HashSet<File>();
+		
+		try {
+			this.watchService = configuration.getSourceDirectory().toPath().getFileSystem().newWatchService();
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+		
+		this.registerTree(FileHelper.normalize(configuration.getSourceDirectory()).toPath());
+	}
+	
+	/**
+	 * Watches every file included by the RAML files of the source directory. Must be called again after each
+	 * generation, since includes may have been added.
+	 */
+	public void watchIncludes() {
+		List<File> ramlFiles = FileHelper.findFiles(this.configuration.getSourceDirectory(), this.configuration.getIncludes(),
+				this.configuration.getExcludes());
+		
+		for (File ramlFile : ramlFiles) {
+			this.watch(RamlHelper.findIncludes(ramlFile));
+		}
+	}
+	
+	/**
+	 * Watches the given files, wherever they are. Used with the files a generator already knows the RAML files are
+	 * read from (see {@link Generator#getSourceFiles()}), so they need not be read again to find their includes.
+	 */
+	public void watch(Collection<File> files) {
+		for (File include : files) {
+			File file = FileHelper.normalize(include);
+			if (this.includedFiles.add(file) && (file.getParentFile().isDirectory())) {
+				this.register(file.getParentFile().toPath());
+			}
+		}
+	}
+	
+	/**
+	 * Waits until a relevant file changes and then for more changes until none happens for the quiet period, so
+	 * saving several files at once triggers a single generation.
+	 * 
+	 * @return The changed files.
+	 */
+	public Set<File> take(long quietPeriodMillis) throws InterruptedException {
+		Set<File> changedFiles = new TreeSet<File>();
+		WatchKey key = this.watchService.take();
+		
+		while (key != null) {
+			this.collectChanges(key, changedFiles);
+			key = this.watchService.poll(quietPeriodMillis, TimeUnit.MILLISECONDS);
+			
+			if ((key == null) && changedFiles.isEmpty()) {
+				key = this.watchService.take();
+			}
+		}
+		
+		return changedFiles;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		this.watchService.close();
+	}
+	
+	private void collectChanges(WatchKey key, Collection<File> changedFiles) {
+		Path directory = this.directories.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == OVERFLOW) {
+				changedFiles.add(directory.toFile());
+				continue;
+			}
+			
+			Path path = directory.resolve((Path) event.context());
+			if ((event.kind() == ENTRY_CREATE) && Files.isDirectory(path) && this.isInSourceDirectory(path)) {
+				this.registerTree(path);
+			}
+			
+			if (this.isRelevant(path.toFile())) {
+				changedFiles.add(path.toFile());
+			}
+		}
+		
+		if (!key.reset()) {
+			this.directories.remove(key);
+		}
+	}
+	
+	private boolean isRelevant(File file) {
+		if (this.includedFiles.contains(file)) {
+			return true;
+		}
+		
+		return FileHelper.matches(FileHelper.normalize(this.configuration.getSourceDirectory()), file, this.configuration.getIncludes(),
+				this.configuration.getExcludes());
+	}
+	
+	private boolean isInSourceDirectory(Path path) {
+		return path.startsWith(FileHelper.normalize(this.configuration.getSourceDirectory()).toPath());
+	}
+	
+	private void registerTree(Path root) {
+		final List<Path> found = new ArrayList<Path>();
+		try {
+			Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+					found.add(directory);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+		
+		for (Path directory : found) {
+			this.register(directory);
+		}
+	}
+	
+	private void register(Path directory) {
+		Path path = directory.toAbsolutePath().normalize();
+		if (this.directories.containsValue(path)) {
+			return;
+		}
+		
+		try {
+			this.directories.put(path.register(this.watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), path);
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+}
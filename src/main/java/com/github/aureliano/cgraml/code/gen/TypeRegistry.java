@@ -0,0 +1,90 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+
+/**
+ * Resolves the type names used by builders (JDK types, generated classes and their generic arguments) to code model
+ * classes. Each name is looked up in the class path at most once per run; names that are not found (generated classes
+ * and classes unknown to the plugin) are remembered as well, so no exception is raised for them again.
+ */
+public class TypeRegistry {
+	
+	private ConcurrentMap<String, Class<?>> classes;
+	private Set<String> unresolved;
+	
+	public TypeRegistry() {
+		this.classes = new ConcurrentHashMap<String, Class<?>>();
+		this.unresolved = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	}
+	
+	/**
+	 * Registers a class generated in this run, so it is never looked up in the class path.
+	 */
+	public void registerGeneratedClass(String canonicalClassName) {
+		if (!this.classes.containsKey(canonicalClassName)) {
+			this.unresolved.add(canonicalClassName);
+		}
+	}
+	
+	/**
+	 * @return The class of the given name in the plugin class path or null if there is no such class.
+	 */
+	public Class<?> resolveClass(String className) {
+		if (className == null) {
+			return null;
+		}
+		
+		Class<?> type = this.classes.get(className);
+		if ((type != null) || (this.unresolved.contains(className))) {
+			return type;
+		}
+		
+		try {
+			type = Class.forName(className);
+			this.classes.putIfAbsent(className, type);
+		} catch (ClassNotFoundException ex) {
+			this.unresolved.add(className);
+		} catch (LinkageError er) {
+			this.unresolved.add(className);
+		}
+		
+		return type;
+	}
+	
+	public boolean isJavaType(String className) {
+		return this.resolveClass(className) != null;
+	}
+	
+	/**
+	 * @return The code model class of the given name, which may be parameterized with a single generic argument
+	 * (<code>java.util.List&lt;Product&gt;</code>).
+	 */
+	public JClass resolve(JCodeModel codeModel, String className) {
+		int index = className.indexOf('<');
+		if ((index > 0) && (className.endsWith(">"))) {
+			return this.resolve(codeModel, className.substring(0, index), className.substring(index + 1, className.length() - 1));
+		}
+		
+		Class<?> type = this.resolveClass(className);
+		return (type != null) ? codeModel.ref(type) : codeModel.directClass(className);
+	}
+	
+	public JClass resolve(JCodeModel codeModel, String className, String genericClassName) {
+		JClass type = this.resolve(codeModel, className);
+		return (genericClassName == null) ? type : type.narrow(this.resolve(codeModel, genericClassName));
+	}
+	
+	public int getResolvedCount() {
+		return this.classes.size();
+	}
+	
+	public int getUnresolvedCount() {
+		return this.unresolved.size();
+	}
+}
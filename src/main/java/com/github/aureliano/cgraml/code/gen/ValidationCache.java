@@ -0,0 +1,84 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+
+import com.github.aureliano.cgraml.helper.RamlHelper;
+
+/**
+ * Persisted record of the RAML files that passed validation: for every RAML file, the hash of its content
+ * (includes as well) and of the RAML parser version. Only successful validations are recorded, so validation errors
+ * are always reported by the parser itself.
+ */
+public class ValidationCache {
+	
+	public static final String FILE_NAME = "validation.properties";
+	
+	private File file;
+	private Properties properties;
+	
+	public ValidationCache(File file) {
+		this.file = file;
+		this.properties = new Properties();
+	}
+	
+	public static ValidationCache load(File directory) {
+		ValidationCache cache = new ValidationCache(new File(directory, FILE_NAME));
+		if (!cache.file.isFile()) {
+			return cache;
+		}
+		
+		InputStream stream = null;
+		try {
+			stream = new FileInputStream(cache.file);
+			cache.properties.load(stream);
+		} catch (IOException ex) {
+			cache.properties.clear();
+		} finally {
+			IOUtils.closeQuietly(stream);
+		}
+		
+		return cache;
+	}
+	
+	public void save() {
+		OutputStream stream = null;
+		try {
+			this.file.getParentFile().mkdirs();
+			stream = new FileOutputStream(this.file);
+			this.properties.store(stream, "Generated by cgraml-maven-plugin. Do not edit.");
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		} finally {
+			IOUtils.closeQuietly(stream);
+		}
+	}
+	
+	public static String hash(File ramlFile, byte[] content) {
+		return RamlHelper.fingerprint(ramlFile, content, RamlHelper.parserVersion());
+	}
+	
+	public boolean isValid(String ramlFile, String hash) {
+		return hash.equals(this.properties.getProperty(ramlFile));
+	}
+	
+	public void update(String ramlFile, String hash) {
+		this.properties.setProperty(ramlFile, hash);
+	}
+	
+	public void retainFiles(Collection<String> ramlFiles) {
+		this.properties.keySet().retainAll(ramlFiles);
+	}
+	
+	public File getFile() {
+		return this.file;
+	}
+}
@@ -1,7 +1,7 @@
 package com.github.aureliano.cgraml.code.meta;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -15,7 +15,7 @@ public class ClassMeta {
 	private List<String> interfaces;
 	
 	public ClassMeta() {
-		this.fields = new HashSet<FieldMeta>();
+		this.fields = new LinkedHashSet<FieldMeta>();
 		this.methods = new ArrayList<MethodMeta>();
 		this.interfaces = new ArrayList<String>();
 	}
@@ -12,6 +12,7 @@ public class FieldMeta {
 	private Visibility visibility;
 	private boolean staticField;
 	private boolean finalField;
+	private boolean volatileField;
 	private String initVaule;
 	private String defaultValue;
 	
@@ -100,6 +101,14 @@ public class FieldMeta {
 		this.finalField = finalField;
 	}
 	
+	public boolean isVolatileField() {
+		return volatileField;
+	}
+	
+	public void setVolatileField(boolean volatileField) {
+		this.volatileField = volatileField;
+	}
+	
 	public String getInitValue() {
 		return initVaule;
 	}
@@ -124,6 +133,7 @@ public class FieldMeta {
 		f.setGenericType(this.genericType);
 		f.setName(this.name);
 		f.setStaticField(this.staticField);
+		f.setVolatileField(this.volatileField);
 		f.setType(this.type);
 		f.setVisibility(this.visibility);
 		f.setInitValue(this.initVaule);
@@ -0,0 +1,77 @@
+package com.github.aureliano.cgraml.code.meta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The services of a RAML file, built once when the file is loaded and shared by every generator layer. Services are
+ * linked to their parent and child services and the graph is not changed after it is built: service, action and
+ * parameter lists are read-only, so builders must copy the metadata they want to change.
+ */
+public class ServiceGraph {
+	
+	private List<ServiceMeta> rootServices;
+	private Set<ServiceMeta> services;
+	private List<Set<ServiceMeta>> subtrees;
+	
+	public ServiceGraph(List<ServiceMeta> rootServices) {
+		this.rootServices = Collections.unmodifiableList(new ArrayList<ServiceMeta>(rootServices));
+		
+		Set<ServiceMeta> services = new LinkedHashSet<ServiceMeta>();
+		List<Set<ServiceMeta>> subtrees = new ArrayList<Set<ServiceMeta>>();
+		for (ServiceMeta service : this.rootServices) {
+			Set<ServiceMeta> subtree = new LinkedHashSet<ServiceMeta>();
+			freeze(service, services, subtree);
+			subtrees.add(Collections.unmodifiableSet(subtree));
+		}
+	
+		this.services = Collections.unmodifiableSet(services);
+		this.subtrees = Collections.unmodifiableList(subtrees);
+	}
+	
+	/**
+	 * Makes the lists of the service and its children read-only. Lists are copied first, so services reused by the graph
+	 * of a later run (see the document cache) are not wrapped once more by every run.
+	 */
+	private static void freeze(ServiceMeta service, Set<ServiceMeta> services, Set<ServiceMeta> subtree) {
+		if (services.add(service)) {
+			subtree.add(service);
+		}
+		
+		for (ActionMeta action : service.getActions()) {
+			action.setParameters(Collections.unmodifiableList(new ArrayList<FieldMeta>(action.getParameters())));
+		}
+		service.setActions(Collections.unmodifiableList(new ArrayList<ActionMeta>(service.getActions())));
+		service.setNextServices(Collections.unmodifiableList(new ArrayList<ServiceMeta>(service.getNextServices())));
+		
+		for (ServiceMeta nextService : service.getNextServices()) {
+			freeze(nextService, services, subtree);
+		}
+	}
+	
+	/**
+	 * @return Services of the top level resources.
+	 */
+	public List<ServiceMeta> getRootServices() {
+		return this.rootServices;
+	}
+	
+	/**
+	 * @return Every service of the graph, parents before their children. Services with the same URI as a service
+	 * listed before them are left out, since they would produce the same classes.
+	 */
+	public Set<ServiceMeta> getServices() {
+		return this.services;
+	}
+	
+	/**
+	 * @return For every root service, the services of {@link #getServices()} that belong to its subtree. Together they
+	 * hold every service of the graph, in the same order.
+	 */
+	public List<Set<ServiceMeta>> getSubtrees() {
+		return this.subtrees;
+	}
+}
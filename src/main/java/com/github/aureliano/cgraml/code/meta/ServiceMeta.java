@@ -11,6 +11,7 @@ public class ServiceMeta {
 	private String genericType;
 	private List<ActionMeta> actions;
 	private List<ServiceMeta> nextServices;
+	private ServiceMeta parentService;
 	
 	public ServiceMeta() {
 		this.setActions(new ArrayList<ActionMeta>());
@@ -75,6 +76,14 @@ public class ServiceMeta {
 		return this;
 	}
 
+	public ServiceMeta getParentService() {
+		return parentService;
+	}
+
+	public void setParentService(ServiceMeta parentService) {
+		this.parentService = parentService;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
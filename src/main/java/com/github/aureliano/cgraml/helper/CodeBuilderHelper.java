@@ -1,11 +1,13 @@
 package com.github.aureliano.cgraml.helper;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 import org.raml.model.ActionType;
 
+import com.github.aureliano.cgraml.code.gen.TypeRegistry;
 import com.github.aureliano.cgraml.code.meta.ActionMeta;
 import com.github.aureliano.cgraml.code.meta.FieldMeta;
 import com.github.aureliano.cgraml.code.meta.MethodMeta;
@@ -49,24 +51,9 @@ public final class CodeBuilderHelper {
 		}
 	}
 	
-	public static Class<?> stringToClass(String className) {
-		try {
-			return Class.forName(className);
-		} catch (Exception ex) {
-			return null;
-		}
-	}
-	
-	public static JFieldVar addAttributeToClass(JCodeModel codeModel, JDefinedClass definedClass, FieldMeta field) {
-		Object type = createTypeScaffold(codeModel, definedClass, field);
-		int fieldMod = attributeMod(field);
-		JFieldVar jfieldVar = null;
-		
-		if (type instanceof Class<?>) {
-			jfieldVar = definedClass.field(fieldMod, (Class<?>) type, field.getName());
-		} else {
-			jfieldVar = definedClass.field(fieldMod, (JClass) type, field.getName());
-		}
+	public static JFieldVar addAttributeToClass(TypeRegistry types, JCodeModel codeModel, JDefinedClass definedClass, FieldMeta field) {
+		JClass type = types.resolve(codeModel, field.getType(), field.getGenericType());
+		JFieldVar jfieldVar = definedClass.field(attributeMod(field), type, field.getName());
 		
 		if (!StringUtils.isEmpty(field.getInitValue())) {
 			jfieldVar.init(JExpr.direct(field.getInitValue()));
@@ -75,29 +62,19 @@ public final class CodeBuilderHelper {
 		return jfieldVar;
 	}
 	
-	public static JMethod addMethodToClass(JCodeModel codeModel, JDefinedClass definedClass, MethodMeta method) {
+	public static JMethod addMethodToClass(TypeRegistry types, JCodeModel codeModel, JDefinedClass definedClass, MethodMeta method) {
 		JMethod jm = null;
-		Object type = null;
 		int methodMod = methodMod(method);		
 		
 		if (method.getReturnType() == null) {
 			jm = definedClass.method(methodMod, codeModel.VOID, method.getName());
 		} else {
-			type = createTypeScaffold(codeModel, definedClass, method);
-			if (type instanceof Class<?>) {
-				jm = definedClass.method(methodMod, (Class<?>) type, method.getName());
-			} else {
-				jm = definedClass.method(methodMod, (JClass) type, method.getName());
-			}
+			jm = definedClass.method(methodMod, types.resolve(codeModel, method.getReturnType(), method.getGenericReturnType()), method.getName());
 		}
 		
 		for (FieldMeta param : method.getParameters()) {
-			type = createTypeScaffold(codeModel, definedClass, param);
-			if (type instanceof Class<?>) {
-				jm.param((Class<?>) type, param.getName());
-			} else {
-				jm.param((JClass) type, param.getName());
-			}
+			int paramMod = (param.isFinalField()) ? JMod.FINAL : JMod.NONE;
+			jm.param(paramMod, types.resolve(codeModel, param.getType(), param.getGenericType()), param.getName());
 		}
 		
 		if (!StringUtils.isEmpty(method.getBody())) {
@@ -108,7 +85,12 @@ public final class CodeBuilderHelper {
 	}
 	
 	private static int attributeMod(FieldMeta attribute) {
-		return getMod(attribute.getVisibility(), attribute.isStaticField(), attribute.isFinalField());
+		int mod = getMod(attribute.getVisibility(), attribute.isStaticField(), attribute.isFinalField());
+		if (attribute.isVolatileField()) {
+			mod = mod | JMod.VOLATILE;
+		}
+		
+		return mod;
 	}
 	
 	private static int methodMod(MethodMeta method) {
@@ -128,46 +110,6 @@ public final class CodeBuilderHelper {
 		return mod;
 	}
 	
-	private static Object createTypeScaffold(JCodeModel codeModel, JDefinedClass definedClass, FieldMeta field) {
-		if (field == null) {
-			return null;
-		}
-		
-		Class<?> attrType = CodeBuilderHelper.stringToClass(field.getType());
-		
-		
-		if (field.getGenericType() == null) {
-			return (attrType != null) ? attrType : codeModel.ref(field.getType());
-		} else {
-			Class<?> genAttrType = CodeBuilderHelper.stringToClass(field.getGenericType());
-			JClass jfield = null;
-			
-			if (genAttrType != null) {
-				if (attrType != null) {
-					jfield = codeModel.ref(attrType).narrow(genAttrType);
-				} else {
-					jfield = codeModel.ref(field.getType()).narrow(genAttrType);
-				}
-			} else {
-				if (attrType != null) {
-					jfield = codeModel.ref(attrType).narrow(codeModel.ref(field.getGenericType()));
-				} else {
-					jfield = codeModel.ref(field.getType()).narrow(codeModel.ref(field.getGenericType()));
-				}
-			}
-			
-			return jfield;
-		}
-	}
-	
-	private static Object createTypeScaffold(JCodeModel codeModel, JDefinedClass definedClass, MethodMeta method) {
-		FieldMeta field = new FieldMeta();
-		field.setType(method.getReturnType());
-		field.setGenericType(method.getGenericReturnType());
-		
-		return createTypeScaffold(codeModel, definedClass, field);
-	}
-	
 	public static MethodMeta createSetterMethod(FieldMeta attribute) {
 		if (attribute == null) {
 			return null;
@@ -228,6 +170,134 @@ public final class CodeBuilderHelper {
 		return m;
 	}
 	
+	/**
+	 * Creates the asynchronous variant of a method: it submits a call of the method to the executor and returns its
+	 * future, so the generated code keeps running on Java 7.
+	 * 
+	 * @param method Synchronous method.
+	 * @param executor Expression of the executor service running the call.
+	 * @param receiver Expression of the instance owning the method, as seen from the anonymous callable.
+	 */
+	public static MethodMeta createAsyncMethod(MethodMeta method, String executor, String receiver) {
+		return createAsyncMethod(method, executor, receiver, "%s", false);
+	}
+	
+	/**
+	 * Same as {@link #createAsyncMethod(MethodMeta, String, String)}, but the result of the call goes through the
+	 * given format before it is returned, i.e. to finish on the executor what the method leaves for later.
+	 * 
+	 * @param resultFormat Format of the returned expression, with the call of the method in place of <code>%s</code>.
+	 */
+	public static MethodMeta createAsyncMethod(MethodMeta method, String executor, String receiver, String resultFormat) {
+		return createAsyncMethod(method, executor, receiver, resultFormat, false);
+	}
+	
+	/**
+	 * Creates the asynchronous variant of a method which also takes a JAX-RS <code>InvocationCallback</code>. The
+	 * callback is told about the result or the failure on the thread running the call, so callers can chain work
+	 * without blocking on the returned future.
+	 * 
+	 * @param method Synchronous method.
+	 * @param executor Expression of the executor service running the call.
+	 * @param receiver Expression of the instance owning the method, as seen from the anonymous callable.
+	 */
+	public static MethodMeta createAsyncCallbackMethod(MethodMeta method, String executor, String receiver) {
+		return createAsyncMethod(method, executor, receiver, "%s", true);
+	}
+	
+	/**
+	 * Same as {@link #createAsyncCallbackMethod(MethodMeta, String, String)}, but the result of the call goes through
+	 * the given format before it is handed to the callback.
+	 * 
+	 * @param resultFormat Format of the returned expression, with the call of the method in place of <code>%s</code>.
+	 */
+	public static MethodMeta createAsyncCallbackMethod(MethodMeta method, String executor, String receiver, String resultFormat) {
+		return createAsyncMethod(method, executor, receiver, resultFormat, true);
+	}
+	
+	private static MethodMeta createAsyncMethod(MethodMeta method, String executor, String receiver, String resultFormat, boolean withCallback) {
+		MethodMeta m = method.clone();
+		String resultType = "java.lang.Void";
+		if (method.getReturnType() != null) {
+			resultType = (method.getGenericReturnType() == null) ? method.getReturnType() :
+				String.format("%s<%s>", method.getReturnType(), method.getGenericReturnType());
+		}
+		
+		m.setName(method.getName() + "Async");
+		m.setReturnType("java.util.concurrent.Future");
+		m.setGenericReturnType(resultType);
+		
+		List<String> arguments = new ArrayList<String>();
+		for (FieldMeta param : m.getParameters()) {
+			param.setFinalField(true);
+			arguments.add(param.getName());
+		}
+		
+		if (withCallback) {
+			FieldMeta callback = new FieldMeta();
+			callback.setName("callback");
+			callback.setType("javax.ws.rs.client.InvocationCallback");
+			callback.setGenericType(resultType);
+			callback.setFinalField(true);
+			
+			m.addParameter(callback);
+		}
+		
+		String call = String.format(resultFormat, String.format("%s.%s(%s)", receiver, method.getName(), StringUtils.join(arguments, ", "))) + ";";
+		StringBuilder body = new StringBuilder()
+			.append(String.format("return %s.submit(new java.util.concurrent.Callable<%s>() {", executor, resultType))
+			.append("\n" + tabulation(3))
+			.append(String.format("public %s call() {", resultType))
+			.append("\n" + tabulation(4));
+		
+		if (withCallback) {
+			body
+				.append(String.format("%s result;", resultType))
+				.append("\n" + tabulation(4))
+				.append("try {")
+				.append("\n" + tabulation(5));
+			
+			if (method.getReturnType() == null) {
+				body
+					.append(call)
+					.append("\n" + tabulation(5))
+					.append("result = null;");
+			} else {
+				body.append("result = " + call);
+			}
+			
+			body
+				.append("\n" + tabulation(4))
+				.append("} catch (RuntimeException ex) {")
+				.append("\n" + tabulation(5))
+				.append("callback.failed(ex);")
+				.append("\n" + tabulation(5))
+				.append("throw ex;")
+				.append("\n" + tabulation(4))
+				.append("}")
+				.append("\n" + tabulation(4))
+				.append("callback.completed(result);")
+				.append("\n" + tabulation(4))
+				.append("return result;");
+		} else if (method.getReturnType() == null) {
+			body
+				.append(call)
+				.append("\n" + tabulation(4))
+				.append("return null;");
+		} else {
+			body.append("return " + call);
+		}
+		
+		m.setBody(body
+			.append("\n" + tabulation(3))
+			.append("}")
+			.append("\n" + tabulation(2))
+			.append("});")
+			.toString());
+		
+		return m;
+	}
+	
 	public static String sanitizedTypeName(String entity) {
 		if (StringUtils.isEmpty(entity)) {
 			return null;
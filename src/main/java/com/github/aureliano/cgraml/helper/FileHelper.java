@@ -0,0 +1,173 @@
+package com.github.aureliano.cgraml.helper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+public final class FileHelper {
+	
+	private static final String HASH_ALGORITHM = "SHA-1";
+	private static final String DIRECTORY_WILDCARD = "**/";
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	
+	private FileHelper() {
+		super();
+	}
+	
+	public static byte[] readBytes(File file) {
+		try {
+			return FileUtils.readFileToByteArray(file);
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * Walks the directory tree and returns, sorted, the files whose path relative to the directory matches any of the
+	 * include globs and none of the exclude globs. As in Maven, <code>**&#47;</code> also matches no directory at all.
+	 */
+	public static List<File> findFiles(File directory, Collection<String> includes, Collection<String> excludes) {
+		final Path root = directory.toPath();
+		final List<PathMatcher> includeMatchers = createMatchers(root.getFileSystem(), includes);
+		final List<PathMatcher> excludeMatchers = createMatchers(root.getFileSystem(), excludes);
+		final List<File> files = new ArrayList<File>();
+		
+		try {
+			Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+					Path path = root.relativize(file);
+					if (matches(includeMatchers, path) && !matches(excludeMatchers, path)) {
+						files.add(file.toFile());
+					}
+					
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+		
+		Collections.sort(files);
+		return files;
+	}
+	
+	/**
+	 * Tells whether the file would be found by {@link #findFiles(File, Collection, Collection)}.
+	 */
+	public static boolean matches(File directory, File file, Collection<String> includes, Collection<String> excludes) {
+		Path root = directory.toPath();
+		Path path = file.toPath();
+		if (!path.startsWith(root)) {
+			return false;
+		}
+		
+		path = root.relativize(path);
+		return matches(createMatchers(root.getFileSystem(), includes), path) && !matches(createMatchers(root.getFileSystem(), excludes), path);
+	}
+	
+	/**
+	 * @return The path of the file relative to the directory, with <code>/</code> as separator whatever the platform.
+	 */
+	public static String relativePath(File directory, File file) {
+		return directory.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+	}
+	
+	/**
+	 * @return The absolute path of the file without <code>.</code> and <code>..</code> segments, so that files can be
+	 * compared whatever the path they were found with.
+	 */
+	public static File normalize(File file) {
+		return file.toPath().toAbsolutePath().normalize().toFile();
+	}
+	
+	private static List<PathMatcher> createMatchers(FileSystem fileSystem, Collection<String> globs) {
+		List<PathMatcher> matchers = new ArrayList<PathMatcher>();
+		if (globs == null) {
+			return matchers;
+		}
+		
+		for (String glob : globs) {
+			for (String variant : expandDirectoryWildcards(glob)) {
+				matchers.add(fileSystem.getPathMatcher("glob:" + variant));
+			}
+		}
+		
+		return matchers;
+	}
+	
+	/**
+	 * NIO globs need at least one directory to match <code>**&#47;</code>, while Maven patterns match zero or more.
+	 * This adds the variants where each <code>**&#47;</code> matches no directory.
+	 */
+	private static List<String> expandDirectoryWildcards(String glob) {
+		int index = glob.indexOf(DIRECTORY_WILDCARD);
+		while ((index > 0) && (glob.charAt(index - 1) != '/')) {
+			index = glob.indexOf(DIRECTORY_WILDCARD, index + 1);
+		}
+		
+		List<String> variants = new ArrayList<String>();
+		if (index < 0) {
+			variants.add(glob);
+			return variants;
+		}
+		
+		String prefix = glob.substring(0, index);
+		for (String variant : expandDirectoryWildcards(glob.substring(index + DIRECTORY_WILDCARD.length()))) {
+			variants.add(prefix + DIRECTORY_WILDCARD + variant);
+			variants.add(prefix + variant);
+		}
+		
+		return variants;
+	}
+	
+	private static boolean matches(List<PathMatcher> matchers, Path path) {
+		for (PathMatcher matcher : matchers) {
+			if (matcher.matches(path)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	public static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	public static String hash(byte[] data) {
+		return toHex(createDigest().digest(data));
+	}
+	
+	public static String hash(File file) {
+		return hash(readBytes(file));
+	}
+	
+	public static String toHex(byte[] data) {
+		char[] chars = new char[data.length * 2];
+		for (int i = 0; i < data.length; i++) {
+			chars[i * 2] = HEX_DIGITS[(data[i] >> 4) & 0x0f];
+			chars[i * 2 + 1] = HEX_DIGITS[data[i] & 0x0f];
+		}
+		
+		return new String(chars);
+	}
+}
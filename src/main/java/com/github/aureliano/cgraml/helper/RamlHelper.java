@@ -1,12 +1,17 @@
 package com.github.aureliano.cgraml.helper;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.security.CodeSource;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 import org.raml.model.Action;
@@ -17,66 +22,173 @@ import org.raml.model.parameter.QueryParameter;
 import org.raml.parser.visitor.RamlDocumentBuilder;
 import org.yaml.snakeyaml.Yaml;
 
-import com.github.aureliano.cgraml.code.gen.Generator;
+import com.github.aureliano.cgraml.code.gen.RamlDocument;
+import com.github.aureliano.cgraml.code.gen.ResourceIndex;
+import com.github.aureliano.cgraml.code.gen.ResourceMapping;
 import com.github.aureliano.cgraml.code.meta.ActionMeta;
 import com.github.aureliano.cgraml.code.meta.FieldMeta;
+import com.github.aureliano.cgraml.code.meta.ServiceGraph;
 import com.github.aureliano.cgraml.code.meta.ServiceMeta;
 
 public final class RamlHelper {
 
+	private static final Pattern INCLUDE_PATTERN = Pattern.compile("!include\\s+([^\\s,}\\]]+)");
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
 	private RamlHelper() {
 		super();
 	}
 	
+	public static RamlDocument loadDocument(File file) {
+		return loadDocument(file, FileHelper.readBytes(file));
+	}
+	
+	/**
+	 * Loads a RAML file from its already read content: validation, the RAML model and the raw YAML tree are all
+	 * built from this single copy instead of each one reading the file again.
+	 */
+	public static RamlDocument loadDocument(File file, byte[] content) {
+		validateDocument(file, content);
+		return parseDocument(file, content);
+	}
+	
+	public static void validateDocument(File file, byte[] content) {
+		ValidationHelper.validateRaml(new String(content, UTF_8), resourceLocation(file), file.getName());
+	}
+	
+	/**
+	 * Builds the RAML model, the resource index and the service graph of an already validated RAML file.
+	 */
+	public static RamlDocument parseDocument(File file, byte[] content) {
+		String text = new String(content, UTF_8);
+		Raml raml = parseModel(text, resourceLocation(file));
+		ResourceIndex index = ResourceIndex.build(new Yaml().compose(new StringReader(text)));
+		
+		return new RamlDocument()
+			.withFile(file)
+			.withRaml(raml)
+			.withResourceIndex(index)
+			.withServiceGraph(buildServiceGraph(index, raml.getResources().values()));
+	}
+	
+	/**
+	 * Computes a content hash of a RAML file, every file it includes (transitively) and the given salt, which is
+	 * used to mix in anything else the generated code depends on (i.e. plugin configuration).
+	 */
+	public static String fingerprint(File ramlFile, byte[] content, String salt) {
+		MessageDigest digest = FileHelper.createDigest();
+		digest.update(salt.getBytes(UTF_8));
+		digest.update(content);
+		
+		Map<File, byte[]> includes = new LinkedHashMap<File, byte[]>();
+		collectIncludes(ramlFile, content, includes);
+		
+		for (File file : includes.keySet()) {
+			digest.update(file.getName().getBytes(UTF_8));
+			digest.update(includes.get(file));
+		}
+		
+		return FileHelper.toHex(digest.digest());
+	}
+	
+	/**
+	 * Identifies the RAML parser in use, so that anything cached from its results is dropped when it is upgraded. The
+	 * parser jar has no implementation version in its manifest, so the location of the jar (which names the version
+	 * in a Maven repository) is used instead.
+	 */
+	public static String parserVersion() {
+		Package pkg = RamlDocumentBuilder.class.getPackage();
+		if ((pkg != null) && (pkg.getImplementationVersion() != null)) {
+			return pkg.getImplementationVersion();
+		}
+		
+		CodeSource source = RamlDocumentBuilder.class.getProtectionDomain().getCodeSource();
+		return (source == null) ? "unknown" : String.valueOf(source.getLocation());
+	}
+	
+	public static String fingerprint(File ramlFile, String salt) {
+		return fingerprint(ramlFile, FileHelper.readBytes(ramlFile), salt);
+	}
+	
+	public static List<File> findIncludes(File ramlFile) {
+		Map<File, byte[]> includes = new LinkedHashMap<File, byte[]>();
+		collectIncludes(ramlFile, FileHelper.readBytes(ramlFile), includes);
+		
+		return new ArrayList<File>(includes.keySet());
+	}
+		
+	private static void collectIncludes(File file, byte[] content, Map<File, byte[]> includes) {
+		Matcher matcher = INCLUDE_PATTERN.matcher(new String(content, UTF_8));
+		while (matcher.find()) {
+			String include = matcher.group(1);
+			if (include.matches("^\\w+://.*")) {
+				continue;
+			}
+			
+			File includedFile = new File(file.getParentFile(), include);
+			if (includes.containsKey(includedFile)) {
+				continue;
+			}
+			
+			byte[] includedContent = (includedFile.isFile()) ? FileHelper.readBytes(includedFile) : new byte[0];
+			includes.put(includedFile, includedContent);
+			collectIncludes(includedFile, includedContent, includes);
+		}
+	}
+	
+	public static String resourceLocation(File file) {
+		return file.getPath().replaceFirst(new File("").getAbsolutePath(), "").replaceFirst("^/", "");
+	}
+	
 	public static Raml parseModel(String path) {
 		return RamlHelper.parseModel(new File(path));
 	}
 	
 	public static Raml parseModel(File file) {
-		String location = file.getPath().replaceFirst(new File("").getAbsolutePath(), "").replaceFirst("^/", "");
-		return new RamlDocumentBuilder().build(location);
+		return new RamlDocumentBuilder().build(resourceLocation(file));
 	}
 	
-	public static Map<?, ?> parseYaml(String path) {
-		return RamlHelper.parseYaml(new File(path));
+	public static Raml parseModel(String content, String location) {
+		return new RamlDocumentBuilder().build(content, location);
 	}
 	
-	public static Map<?, ?> parseYaml(File file) {
-		String location = file.getPath().replaceFirst(new File("").getAbsolutePath(), "").replaceFirst("^/", "");
-		
-		try {
-			return new Yaml().loadAs(new FileInputStream(location), Map.class);
-		} catch (FileNotFoundException ex) {
-			throw new RuntimeException(ex);
-		}
+	/**
+	 * Converts the given resources and, recursively, their nested resources to a service graph.
+	 */
+	public static ServiceGraph buildServiceGraph(ResourceIndex index, Collection<Resource> resources) {
+		return new ServiceGraph(resourcesToServices(index, resources, null));
 	}
 	
-	public static List<ServiceMeta> resourcesToServices(Collection<Resource> resources) {
+	private static List<ServiceMeta> resourcesToServices(ResourceIndex index, Collection<Resource> resources, ServiceMeta parent) {
 		List<ServiceMeta> services = new ArrayList<ServiceMeta>();
 		for (Resource resource : resources) {
-			services.add(resourceToService(resource));
+			ServiceMeta service = resourceToService(index, resource);
+			service.setParentService(parent);
+			service.setNextServices(resourcesToServices(index, resource.getResources().values(), service));
+			
+			services.add(service);
 		}
 		
 		return services;
 	}
 
-	public static ServiceMeta resourceToService(Resource resource) {
-		Map<String, Object> map = getResourceMapping(resource);
+	public static ServiceMeta resourceToService(ResourceIndex index, Resource resource) {
+		ResourceMapping mapping = index.get(resource.getUri());
+		if (mapping == null) {
+			throw new IllegalArgumentException("Resource " + resource.getUri() + " was not found in the RAML document.");
+		}
+		
 		ServiceMeta service = new ServiceMeta();
 		
-		service.setUri(map.get("uri").toString());
+		service.setUri(mapping.getRelativeUri());
 		service.setResourceType(resource.getType());
 		
-		if (map.get("type") != null) {
-			Map<String, Map<String, ?>> type = (Map<String, Map<String, ?>>) map.get("type");
-			String key = type.keySet().iterator().next();
-			Map<String, String> schemaTypes = (Map<String, String>) type.get(key);
-			
-			if (StringUtils.isEmpty(schemaTypes.get("collectionSchema"))) {
-				service.setType(CodeBuilderHelper.getJavaType(schemaTypes.get("schema")));
+		if (mapping.getResourceType() != null) {
+			if (StringUtils.isEmpty(mapping.getCollectionSchema())) {
+				service.setType(CodeBuilderHelper.getJavaType(mapping.getSchema()));
 			} else {
-				service.setType(CodeBuilderHelper.getJavaType(schemaTypes.get("collectionSchema")));
-				service.setGenericType(CodeBuilderHelper.getJavaType(schemaTypes.get("schema")));
+				service.setType(CodeBuilderHelper.getJavaType(mapping.getCollectionSchema()));
+				service.setGenericType(CodeBuilderHelper.getJavaType(mapping.getSchema()));
 			}
 		}
 		
@@ -103,40 +215,4 @@ public final class RamlHelper {
 		
 		return service;
 	}
-	
-	@SuppressWarnings("unchecked")
-	protected static Map<String, Object> getResourceMapping(Resource resource) {
-		Map<String, Object> map = (Map<String, Object>) Generator.currentRamlMap;
-		List<String> keys = getResourcePaths(resource);
-		String uri = null;
-
-		for (String key : keys) {
-			if (StringUtils.isEmpty(key)) {
-				continue;
-			}
-			
-			uri = key;
-			map = (Map<String, Object>) map.get(key);
-		}
-		
-		map.put("uri", uri);
-		return map;
-	}
-	
-	private static List<String> getResourcePaths(Resource resource) {
-		List<String> paths = new ArrayList<String>();
-		String uri = resource.getUri();
-		
-		Resource parent = resource.getParentResource();
-		if (parent != null) {
-			for (String path : getResourcePaths(parent)) {
-				paths.add(path);
-			}
-			uri = uri.replace(parent.getUri(), "");
-		}
-		
-		paths.add(uri);
-		
-		return paths;
-	}
 }
\ No newline at end of file
@@ -29,9 +29,18 @@ public final class ValidationHelper {
 	}
 	
 	public static void validateRamlFile(File ramlFile) {
-		String location = ramlFile.getPath().replaceFirst(new File("").getAbsolutePath(), "").replaceFirst("^/", "");
+		String location = RamlHelper.resourceLocation(ramlFile);
 		List<ValidationResult> result = RamlValidationService.createDefault().validate(location);
 
+		checkValidationResult(result, ramlFile.getName());
+	}
+	
+	public static void validateRaml(String content, String location, String fileName) {
+		List<ValidationResult> result = RamlValidationService.createDefault().validate(content, location);
+		checkValidationResult(result, fileName);
+	}
+	
+	private static void checkValidationResult(List<ValidationResult> result, String fileName) {
 		if (result == null || result.isEmpty()) {
 			return;
 		}
@@ -42,7 +51,7 @@ public final class ValidationHelper {
 				.append("\n")
 				.append(v.getLevel().name() + ": ")
 				.append(v.getMessage())
-				.append(" (" + ramlFile.getName() + ":" + v.getLine() + ")");
+				.append(" (" + fileName + ":" + v.getLine() + ")");
 		}
 		
 		throw new RuntimeException(message.toString());
@@ -0,0 +1,71 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+public class DependencyIndexTest {
+	
+	private static final File DIRECTORY = new File("target/test-dependency-index");
+	
+	@After
+	public void afterTest() {
+		FileUtils.deleteQuietly(DIRECTORY);
+	}
+	
+	@Test
+	public void testSaveAndLoad() {
+		DependencyIndex index = DependencyIndex.load(DIRECTORY, "config");
+		index.update("api.raml", "schema:product", "abc", Arrays.asList("schema:product", "linkedData:/presentations"),
+				Arrays.asList("com.app.gen.model.Product"));
+		index.update("api.raml", "service:/products", "def", Arrays.asList("resource:/products", "model:Product"),
+				Arrays.asList("com.app.gen.service.ProductsService"));
+		index.save();
+		
+		index = DependencyIndex.load(DIRECTORY, "config");
+		assertTrue(index.isUpToDate("api.raml", "schema:product", "abc"));
+		assertFalse(index.isUpToDate("api.raml", "schema:product", "def"));
+		assertFalse(index.isUpToDate("other.raml", "schema:product", "abc"));
+		assertEquals(Arrays.asList("com.app.gen.model.Product"), index.getGeneratedClasses("api.raml", "schema:product"));
+		assertEquals(Collections.singleton("com.app.gen.service.ProductsService"), index.getDependentClasses("api.raml", "model:Product"));
+		
+		index.retainUnits("api.raml", Arrays.asList("service:/products"));
+		assertEquals(Collections.singleton("service:/products"), index.getUnits("api.raml"));
+		
+		index.remove("api.raml");
+		assertTrue(index.getUnits("api.raml").isEmpty());
+	}
+	
+	@Test
+	public void testConfigurationChange() {
+		DependencyIndex index = DependencyIndex.load(DIRECTORY, "config");
+		index.update("api.raml", "schema:product", "abc", Arrays.asList("schema:product"), Arrays.asList("com.app.gen.model.Product"));
+		index.save();
+		
+		index = DependencyIndex.load(DIRECTORY, "other config");
+		assertFalse(index.isUpToDate("api.raml", "schema:product", "abc"));
+		assertTrue(index.getUnits("api.raml").isEmpty());
+	}
+	
+	@Test
+	public void testPluginVersionChange() throws Exception {
+		DependencyIndex index = DependencyIndex.load(DIRECTORY, "config");
+		index.update("api.raml", "schema:product", "abc", Arrays.asList("schema:product"), Arrays.asList("com.app.gen.model.Product"));
+		index.save();
+		
+		File file = new File(DIRECTORY, DependencyIndex.FILE_NAME);
+		FileUtils.writeStringToFile(file, FileUtils.readFileToString(file).replace(GenerationManifest.PLUGIN_VERSION + "|", "0.0.1|"));
+		
+		index = DependencyIndex.load(DIRECTORY, "config");
+		assertFalse(index.isUpToDate("api.raml", "schema:product", "abc"));
+		assertTrue(index.getUnits("api.raml").isEmpty());
+	}
+}
@@ -0,0 +1,111 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.aureliano.cgraml.code.meta.ServiceMeta;
+import com.github.aureliano.cgraml.helper.RamlHelper;
+
+public class DocumentCacheTest {
+	
+	private static final File DIRECTORY = new File("target/test-document-cache");
+	private static final String ORDERS = "\n/orders:\n  type: { typedCollection: { schema: product, collectionSchema: products } }\n" +
+			"  get:\n    queryParameters:\n      status:\n        type: string\n";
+	
+	private File ramlFile;
+	private DocumentCache cache;
+	
+	@Before
+	public void beforeTest() throws Exception {
+		this.ramlFile = new File(DIRECTORY, "raml/api.raml");
+		this.cache = new DocumentCache(new File(DIRECTORY, "work"));
+		FileUtils.writeStringToFile(this.ramlFile, FileUtils.readFileToString(new File("src/test/resources/raml.yaml")) + ORDERS);
+	}
+	
+	@After
+	public void afterTest() {
+		FileUtils.deleteQuietly(DIRECTORY);
+	}
+	
+	@Test
+	public void testReuseUnchangedResources() throws Exception {
+		DocumentCache.Entry entry = this.cache.prepare("api.raml", this.ramlFile, FileUtils.readFileToByteArray(this.ramlFile));
+		assertEquals(4, entry.getResourceCount());
+		assertEquals(0, entry.getReusedCount());
+		this.load(entry);
+		
+		String raml = FileUtils.readFileToString(this.ramlFile);
+		FileUtils.writeStringToFile(this.ramlFile, raml.substring(0, raml.lastIndexOf("Filter by title")) + "Filter by name" +
+				raml.substring(raml.lastIndexOf("Filter by title") + "Filter by title".length()));
+		
+		byte[] content = FileUtils.readFileToByteArray(this.ramlFile);
+		entry = this.cache.prepare("api.raml", this.ramlFile, content);
+		assertEquals(1, entry.getReusedCount());
+		
+		RamlDocument document = this.load(entry);
+		RamlDocument expected = RamlHelper.parseDocument(this.ramlFile, content);
+		assertEquals(this.describe(expected), this.describe(document));
+	}
+	
+	@Test
+	public void testReuseResourcesWrittenByAnotherCache() throws Exception {
+		byte[] content = FileUtils.readFileToByteArray(this.ramlFile);
+		this.load(this.cache.prepare("api.raml", this.ramlFile, content));
+		
+		this.cache = new DocumentCache(new File(DIRECTORY, "work"));
+		DocumentCache.Entry entry = this.cache.prepare("api.raml", this.ramlFile, content);
+		assertEquals(2, entry.getReusedCount());
+		
+		RamlDocument expected = RamlHelper.parseDocument(this.ramlFile, content);
+		assertEquals(this.describe(expected), this.describe(this.load(entry)));
+	}
+	
+	@Test
+	public void testValidationMessagesKeepLineNumbers() throws Exception {
+		this.load(this.cache.prepare("api.raml", this.ramlFile, FileUtils.readFileToByteArray(this.ramlFile)));
+		
+		String raml = FileUtils.readFileToString(this.ramlFile).replace("/test/something:\n  type: { typedCollection",
+				"/test/something:\n  type: { unknownCollection");
+		FileUtils.writeStringToFile(this.ramlFile, raml);
+		byte[] content = FileUtils.readFileToByteArray(this.ramlFile);
+		
+		DocumentCache.Entry entry = this.cache.prepare("api.raml", this.ramlFile, content);
+		assertEquals(1, entry.getReusedCount());
+		assertEquals(this.validationMessage(content), this.validationMessage(entry.getContent()));
+	}
+	
+	private RamlDocument load(DocumentCache.Entry entry) {
+		RamlHelper.validateDocument(this.ramlFile, entry.getContent());
+		return this.cache.complete(entry, RamlHelper.parseDocument(this.ramlFile, entry.getContent()));
+	}
+	
+	private String validationMessage(byte[] content) {
+		try {
+			RamlHelper.validateDocument(this.ramlFile, content);
+		} catch (RuntimeException ex) {
+			return ex.getMessage();
+		}
+		
+		return null;
+	}
+	
+	private List<String> describe(RamlDocument document) {
+		List<String> services = new ArrayList<String>();
+		for (ServiceMeta service : document.getServiceGraph().getServices()) {
+			GenerationUnit unit = GenerationUnit.forService("service", service);
+			services.add(unit.getName() + "=" + unit.getHash());
+		}
+		
+		assertNotNull(document.getRaml().getSchemas());
+		return services;
+	}
+}
@@ -0,0 +1,122 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JMod;
+
+public class GeneratedSourcesWriterTest {
+	
+	private static final File DIRECTORY = new File("target/test-sources/com/app");
+	
+	@After
+	public void afterTest() {
+		FileUtils.deleteQuietly(new File("target/test-sources"));
+	}
+	
+	@Test
+	public void testGetSourceFile() {
+		GeneratedSourcesWriter writer = new GeneratedSourcesWriter(DIRECTORY, "com.app");
+		
+		assertEquals(new File(DIRECTORY, "gen/model/Product.java"), writer.getSourceFile("com.app.gen.model.Product"));
+		assertEquals(new File(DIRECTORY, "Api.java"), writer.getSourceFile("com.app.Api"));
+	}
+	
+	@Test
+	public void testFlush() throws Exception {
+		GeneratedSourcesWriter writer = this.buildSources("com.app.gen.model.Product");
+		File file = writer.getSourceFile("com.app.gen.model.Product");
+		assertFalse(file.exists());
+		
+		writer.flush();
+		assertEquals(1, writer.getWrittenCount());
+		assertTrue(file.isFile());
+		assertTrue(FileUtils.readFileToString(file).contains("public class Product"));
+		
+		file.setLastModified(1000L);
+		writer = this.buildSources("com.app.gen.model.Product");
+		writer.flush();
+		assertEquals(0, writer.getWrittenCount());
+		assertEquals(1, writer.getUnchangedCount());
+		assertEquals(1000L, file.lastModified());
+	}
+	
+	@Test
+	public void testStreaming() throws Exception {
+		GeneratedSourcesWriter writer = new GeneratedSourcesWriter(DIRECTORY, "com.app").withStreaming(true);
+		JCodeModel codeModel = new JCodeModel();
+		codeModel._class("com.app.gen.model.Product");
+		codeModel._class("com.app.gen.model.Order");
+		codeModel.build(writer);
+		
+		File file = writer.getSourceFile("com.app.gen.model.Product");
+		assertTrue(file.isFile());
+		assertTrue(FileUtils.readFileToString(file).contains("public class Product"));
+		assertEquals(2, writer.getWrittenCount());
+		
+		writer.flush();
+		assertEquals(2, writer.getWrittenCount());
+	}
+	
+	@Test
+	public void testConflicts() throws Exception {
+		GeneratedSourcesWriter writer = new GeneratedSourcesWriter(DIRECTORY, "com.app");
+		this.buildSource(writer.forRamlFile("b.raml"), "com.app.gen.model.Product", "name");
+		this.buildSource(writer.forRamlFile("a.raml"), "com.app.gen.model.Product", "id");
+		this.buildSource(writer.forRamlFile("a.raml"), "com.app.gen.model.Order", "id");
+		this.buildSource(writer.forRamlFile("b.raml"), "com.app.gen.model.Order", "id");
+		
+		File product = writer.getSourceFile("com.app.gen.model.Product");
+		assertEquals(Arrays.asList("Source " + product.getPath() + " is generated differently from a.raml and b.raml. " +
+				"Keeping the one from a.raml."), writer.getConflicts());
+		
+		writer.flush();
+		assertEquals(2, writer.getWrittenCount());
+		assertTrue(FileUtils.readFileToString(product).contains(" id;"));
+	}
+	
+	@Test
+	public void testDeleteSources() throws Exception {
+		this.buildSources("com.app.gen.model.Product", "com.app.gen.model.Order", "com.app.gen.model.Item").flush();
+		
+		GeneratedSourcesWriter writer = this.buildSources("com.app.gen.model.Product");
+		writer.flush();
+		File order = writer.getSourceFile("com.app.gen.model.Order");
+		File item = writer.getSourceFile("com.app.gen.model.Item");
+		
+		List<File> deleted = writer.deleteSources(Arrays.asList("com.app.gen.model.Product", "com.app.gen.model.Item",
+				"com.app.gen.model.Missing"));
+		assertEquals(Arrays.asList(item), deleted);
+		assertTrue(order.isFile());
+		assertFalse(item.exists());
+		assertTrue(writer.getSourceFile("com.app.gen.model.Product").isFile());
+	}
+	
+	private void buildSource(CodeWriter writer, String className, String fieldName) throws Exception {
+		JCodeModel codeModel = new JCodeModel();
+		codeModel._class(className).field(JMod.PRIVATE, String.class, fieldName);
+		codeModel.build(writer);
+	}
+	
+	private GeneratedSourcesWriter buildSources(String...classNames) throws Exception {
+		GeneratedSourcesWriter writer = new GeneratedSourcesWriter(DIRECTORY, "com.app");
+		JCodeModel codeModel = new JCodeModel();
+		for (String className : classNames) {
+			codeModel._class(className);
+		}
+		codeModel.build(writer);
+		
+		return writer;
+	}
+}
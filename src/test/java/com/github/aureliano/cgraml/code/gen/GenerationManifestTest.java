@@ -0,0 +1,48 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+public class GenerationManifestTest {
+	
+	private static final File DIRECTORY = new File("target/test-manifest");
+	
+	@After
+	public void afterTest() {
+		FileUtils.deleteQuietly(DIRECTORY);
+	}
+	
+	@Test
+	public void testLoadWithoutFile() {
+		GenerationManifest manifest = GenerationManifest.load(DIRECTORY);
+		
+		assertTrue(manifest.getRamlFiles().isEmpty());
+		assertFalse(manifest.isUpToDate("api.raml", "abc"));
+	}
+	
+	@Test
+	public void testSaveAndLoad() {
+		GenerationManifest manifest = GenerationManifest.load(DIRECTORY);
+		manifest.update("api.raml", "abc", Arrays.asList("com.app.gen.model.Product", "com.app.gen.model.IModel"));
+		manifest.update("other.raml", "def", Arrays.asList("com.app.gen.model.IModel"));
+		manifest.save();
+		
+		manifest = GenerationManifest.load(DIRECTORY);
+		assertTrue(manifest.isUpToDate("api.raml", "abc"));
+		assertFalse(manifest.isUpToDate("api.raml", "def"));
+		assertEquals(Arrays.asList("com.app.gen.model.IModel", "com.app.gen.model.Product"), manifest.getGeneratedClasses("api.raml"));
+		assertEquals(2, manifest.getAllGeneratedClasses().size());
+		
+		manifest.remove("api.raml");
+		assertEquals(1, manifest.getRamlFiles().size());
+		assertEquals(1, manifest.getAllGeneratedClasses().size());
+	}
+}
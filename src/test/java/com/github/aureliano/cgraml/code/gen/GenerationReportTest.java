@@ -0,0 +1,68 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.aureliano.cgraml.code.builder.IBuilder;
+import com.github.aureliano.cgraml.support.QuietLog;
+
+public class GenerationReportTest {
+	
+	private static final File DIRECTORY = new File("target/test-report");
+	
+	@After
+	public void afterTest() {
+		FileUtils.deleteQuietly(DIRECTORY);
+	}
+	
+	@Test
+	public void testPhase() {
+		PhaseReport phase = PhaseReport.start("parsing", "api.raml");
+		byte[] data = new byte[1024 * 1024];
+		phase.stop();
+		
+		assertEquals("parsing", phase.getName());
+		assertEquals("api.raml", phase.getRamlFile());
+		assertTrue(phase.getWallMillis() >= 0);
+		assertTrue((phase.getAllocatedBytes() == -1) || (phase.getAllocatedBytes() >= data.length));
+	}
+	
+	@Test
+	public void testTotals() {
+		GenerationReport report = GenerationReport.start(2);
+		report.addPhase(new PhaseReport().withName("MODEL").withClasses(3));
+		report.addPhase(new PhaseReport().withName("SERVICE").withClasses(2));
+		report.addPhase(new PhaseReport().withName("writing").withBytesWritten(512));
+		report.stop().print(new QuietLog());
+		
+		assertEquals(5, report.getClasses());
+		assertEquals(512, report.getBytesWritten());
+		assertEquals(3, report.getPhases().size());
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testSave() throws Exception {
+		GenerationReport report = GenerationReport.start(1);
+		report.addPhase(new PhaseReport().withName("MODEL").withRamlFile("api.raml").withClasses(3).withAllocatedBytes(2048));
+		report.stop().save(DIRECTORY);
+		
+		Map<String, Object> json = IBuilder.OBJECT_MAPPER.readValue(new File(DIRECTORY, GenerationReport.FILE_NAME), Map.class);
+		assertEquals(1, json.get("threads"));
+		assertEquals(3, json.get("classes"));
+		
+		List<Map<String, Object>> phases = (List<Map<String, Object>>) json.get("phases");
+		assertEquals(1, phases.size());
+		assertEquals("MODEL", phases.get(0).get("name"));
+		assertEquals("api.raml", phases.get(0).get("ramlFile"));
+		assertEquals(2048, phases.get(0).get("allocatedBytes"));
+	}
+}
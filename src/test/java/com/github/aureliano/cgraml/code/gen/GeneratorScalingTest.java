@@ -0,0 +1,78 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.aureliano.cgraml.support.ScalingGeneration;
+
+/**
+ * Guards against super-linear regressions: generates growing synthetic RAML documents and checks that allocated memory
+ * per resource stays within fixed budgets. Elapsed time depends on the machine, so it is checked apart, by
+ * {@link GeneratorTimingTest}.
+ */
+public class GeneratorScalingTest {
+	
+	private static final long ALLOCATION_BUDGET_PER_RESOURCE_BYTES = 16L * 1024 * 1024;
+	private static final long RETAINED_HEAP_BUDGET_BYTES = 64L * 1024 * 1024;
+	private static final double MAX_GROWTH_FACTOR = 2.0;
+	
+	private ScalingGeneration scaling = new ScalingGeneration(new File("target/test-scaling"));
+	
+	@After
+	public void afterTest() {
+		this.scaling.delete();
+	}
+	
+	@Test
+	public void testGenerationAllocationScalesLinearly() {
+		this.scaling.generate("warmup", ScalingGeneration.SMALL);
+		
+		Generator smallGenerator = this.scaling.createGenerator("small", ScalingGeneration.SMALL);
+		PhaseReport small = PhaseReport.start("small", null);
+		smallGenerator.run();
+		long smallAllocated = small.stop().getAllocatedBytes();
+		
+		Generator largeGenerator = this.scaling.createGenerator("large", ScalingGeneration.LARGE);
+		PhaseReport large = PhaseReport.start("large", null);
+		largeGenerator.run();
+		long largeAllocated = large.stop().getAllocatedBytes();
+		if ((smallAllocated < 0) || (largeAllocated < 0)) {
+			return;
+		}
+		
+		int smallResources = this.scaling.createCorpus(ScalingGeneration.SMALL).countResources();
+		int largeResources = this.scaling.createCorpus(ScalingGeneration.LARGE).countResources();
+		
+		assertTrue("Generation of " + largeResources + " resources allocated " + largeAllocated + " bytes.",
+				largeAllocated <= ALLOCATION_BUDGET_PER_RESOURCE_BYTES * largeResources);
+		
+		double smallPerResource = (double) smallAllocated / smallResources;
+		double largePerResource = (double) largeAllocated / largeResources;
+		assertTrue("Allocation per resource grew from " + smallPerResource + " to " + largePerResource + " bytes.",
+				largePerResource <= MAX_GROWTH_FACTOR * smallPerResource);
+	}
+	
+	@Test
+	public void testGenerationDoesNotRetainHeap() {
+		this.scaling.generate("warmup", ScalingGeneration.SMALL);
+		long before = this.usedHeap();
+		
+		this.scaling.generate("large", ScalingGeneration.LARGE);
+		long after = this.usedHeap();
+		
+		assertTrue("Generation retained " + (after - before) + " bytes of heap.", after - before <= RETAINED_HEAP_BUDGET_BYTES);
+	}
+	
+	private long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
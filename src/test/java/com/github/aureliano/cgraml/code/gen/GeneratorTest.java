@@ -0,0 +1,433 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.aureliano.cgraml.code.builder.ClientContextBuilder;
+import com.github.aureliano.cgraml.support.QuietLog;
+
+public class GeneratorTest {
+	
+	private static final File DIRECTORY = new File("target/test-generator");
+	private static final String BASE_PACKAGE = "com.app";
+	
+	@After
+	public void afterTest() {
+		FileUtils.deleteQuietly(DIRECTORY);
+	}
+	
+	@Test
+	public void testGenerationIsReproducible() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(ramlDirectory, "api.raml"));
+		
+		Map<String, String> first = this.generate(ramlDirectory, "first", 1, false);
+		Map<String, String> second = this.generate(ramlDirectory, "second", 4, false);
+		
+		assertFalse(first.isEmpty());
+		this.assertSameSources(first, second);
+	}
+	
+	@Test
+	public void testStreamingGeneratesSameSources() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(ramlDirectory, "api.raml"));
+		
+		Map<String, String> buffered = this.generate(ramlDirectory, "buffered", 1, false);
+		Map<String, String> streamed = this.generate(ramlDirectory, "streamed", 4, true);
+		
+		assertFalse(buffered.isEmpty());
+		this.assertSameSources(buffered, streamed);
+	}
+	
+	@Test
+	public void testParallelRamlFiles() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(ramlDirectory, "api.raml"));
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(ramlDirectory, "copy.raml"));
+		
+		Map<String, String> sequential = this.generate(ramlDirectory, "sequential", 1, false);
+		Map<String, String> parallel = this.generate(ramlDirectory, "parallel", 4, false);
+		
+		assertFalse(sequential.isEmpty());
+		this.assertSameSources(sequential, parallel);
+	}
+	
+	@Test
+	public void testSchemaChangeRegeneratesItsModelOnly() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		File ramlFile = new File(ramlDirectory, "api.raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), ramlFile);
+		
+		RecordingLog log = new RecordingLog();
+		Generator generator = this.createIncrementalGenerator(ramlDirectory, log);
+		generator.run();
+		assertTrue(log.getGeneratedClasses().contains(BASE_PACKAGE + ".gen.service.ProductsService"));
+		
+		String raml = FileUtils.readFileToString(ramlFile);
+		FileUtils.writeStringToFile(ramlFile, raml.replace("A single product Presentation", "A single product presentation"));
+		log.getGeneratedClasses().clear();
+		generator.run();
+		
+		assertTrue(log.getGeneratedClasses().contains(BASE_PACKAGE + ".gen.model.Presentation"));
+		for (String className : log.getGeneratedClasses()) {
+			String simpleName = className.substring(className.lastIndexOf('.') + 1);
+			if (!simpleName.matches("I[A-Z]\\w*") && !simpleName.equals(EagerDataListGenerator.CLASS_NAME) &&
+					!simpleName.equals(ClientContextGenerator.CLASS_NAME) && !simpleName.equals(JsonContextGenerator.CLASS_NAME)) {
+				assertEquals(BASE_PACKAGE + ".gen.model.Presentation", className);
+			}
+		}
+		
+		File target = generator.getConfiguration().getGeneratedSourcesTarget();
+		Map<String, String> incremental = this.readSources(target);
+		Map<String, String> full = this.generate(ramlDirectory, "full", 1, false);
+		this.assertSameSources(full, incremental);
+	}
+	
+	@Test
+	public void testServicesShareTheClientContext() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(ramlDirectory, "api.raml"));
+		
+		Map<String, String> sources = this.generate(ramlDirectory, "client", 1, false);
+		String clientContext = "/gen/service/" + ClientContextGenerator.CLASS_NAME + ".java";
+		assertTrue(sources.containsKey(clientContext));
+		
+		for (String path : sources.keySet()) {
+			if (path.contains("/gen/service/") && !path.equals(clientContext)) {
+				assertFalse(path, sources.get(path).contains("ClientBuilder.newClient("));
+			}
+		}
+		
+		assertTrue(sources.get("/gen/service/ApiMapService.java").contains("public void close()"));
+		assertTrue(sources.get("/gen/service/ProductsService.java").contains("ApiMapService.instance().getClientContext().getClient()"));
+		
+		assertTrue(sources.get(clientContext).contains("private volatile javax.ws.rs.client.Client client;"));
+		assertTrue(sources.get(clientContext).contains("public javax.ws.rs.client.Client getClient()"));
+		assertTrue(sources.get(clientContext).contains("public synchronized void close()"));
+	}
+	
+	@Test
+	public void testServicesShareTheJsonContext() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(ramlDirectory, "api.raml"));
+		
+		Map<String, String> sources = this.generate(ramlDirectory, "json", 1, false);
+		String jsonContext = "/gen/service/" + JsonContextGenerator.CLASS_NAME + ".java";
+		assertTrue(sources.containsKey(jsonContext));
+		
+		for (String path : sources.keySet()) {
+			if (!path.equals(jsonContext)) {
+				assertFalse(path, sources.get(path).contains("new com.fasterxml.jackson.databind.ObjectMapper("));
+			}
+		}
+		
+		assertTrue(sources.get("/gen/service/ProductsService.java").contains("JsonContext.read(com.app.gen.model.Products.class, stream)"));
+	}
+	
+	@Test
+	public void testServicesDecodeResponsesFromTheStream() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(ramlDirectory, "api.raml"));
+		
+		Map<String, String> sources = this.generate(ramlDirectory, "json", 1, false);
+		for (String path : sources.keySet()) {
+			if (path.endsWith("Service.java")) {
+				assertFalse(path, sources.get(path).contains(", String.class)"));
+				assertFalse(path, sources.get(path).contains("get(String.class)"));
+			}
+		}
+		
+		String productService = sources.get("/gen/service/ProductIdService.java");
+		assertTrue(productService.contains("get(java.io.InputStream.class)"));
+		assertTrue(productService.contains("put(javax.ws.rs.client.Entity.entity(entity, javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE), java.io.InputStream.class)"));
+	}
+	
+	@Test
+	public void testServicesStreamRequestEntities() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(ramlDirectory, "api.raml"));
+		
+		Map<String, String> sources = this.generate(ramlDirectory, "json", 1, false);
+		for (String path : sources.keySet()) {
+			assertFalse(path, sources.get(path).contains("writeValueAsString("));
+		}
+		
+		assertTrue(sources.get("/gen/service/ProductsService.java").contains("JsonContext.write(com.app.gen.model.Product.class, entityResource, output);"));
+		
+		String clientContext = sources.get("/gen/service/" + ClientContextGenerator.CLASS_NAME + ".java");
+		assertTrue(clientContext.contains("RequestEntityProcessing.CHUNKED"));
+		assertTrue(clientContext.contains("this.chunkSize = " + ClientContextBuilder.DEFAULT_CHUNK_SIZE + ";"));
+	}
+	
+	@Test
+	public void testAsynchronousVariantsAreGenerated() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(ramlDirectory, "api.raml"));
+		
+		Map<String, String> sources = this.generate(ramlDirectory, "json", 1, false);
+		String productService = sources.get("/gen/service/ProductIdService.java");
+		assertTrue(productService.contains("public Future<com.app.gen.model.Product> httpGetAsync()"));
+		assertTrue(productService.contains("public Future<com.app.gen.model.Product> httpPutAsync(final com.app.gen.model.Product entityResource)"));
+		assertTrue(productService.contains("public Future<Void> httpDeleteAsync()"));
+		assertTrue(productService.contains("public Future<Void> httpDeleteAsync(final javax.ws.rs.client.InvocationCallback<Void> callback)"));
+		assertTrue(productService.contains("callback.completed(result);"));
+		assertFalse(productService.contains("httpPatchAsync"));
+		
+		String apiMapService = sources.get("/gen/service/ApiMapService.java");
+		assertTrue(apiMapService.contains("public Future<List<com.app.gen.model.Product>> fetchProductsAsync()"));
+		assertTrue(apiMapService.contains("fetchProductsAsync(final com.app.gen.parameters.ProductsParameters parameters)"));
+		assertTrue(apiMapService.contains("fetchProductsAsync(final com.app.gen.parameters.ProductsParameters parameters, "
+				+ "final javax.ws.rs.client.InvocationCallback<List<com.app.gen.model.Product>> callback)"));
+		assertTrue(apiMapService.contains("return ((com.app.gen.EagerDataList<com.app.gen.model.Product>) ApiMapService.this.fetchProducts()).fetchAll();"));
+		assertTrue(sources.get("/gen/EagerDataList.java").contains("public List<E> fetchAll()"));
+		assertTrue(sources.get("/gen/service/" + ClientContextGenerator.CLASS_NAME + ".java").contains("public ExecutorService getExecutor()"));
+	}
+	
+	@Test
+	public void testUnchangedRamlFileIsNotValidatedAgain() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(ramlDirectory, "api.raml"));
+		
+		RecordingLog log = new RecordingLog();
+		Generator generator = this.createIncrementalGenerator(ramlDirectory, log);
+		generator.run();
+		assertFalse(log.hasMessage("Skipping validation."));
+		
+		FileUtils.deleteQuietly(generator.getConfiguration().getGeneratedSourcesTarget());
+		generator.run();
+		assertTrue(log.hasMessage("Skipping validation."));
+		assertTrue(new File(generator.getConfiguration().getGeneratedSourcesTarget(), "gen/service/ProductsService.java").isFile());
+	}
+	
+	@Test
+	public void testOnlyChangedRamlFilesAreReadAgain() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		File ramlFile = new File(ramlDirectory, "api.raml");
+		File otherFile = new File(ramlDirectory, "other.raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), ramlFile);
+		String other = FileUtils.readFileToString(ramlFile).replace("/test/something:", "/test/other:");
+		FileUtils.writeStringToFile(otherFile, other);
+		
+		Generator generator = this.createIncrementalGenerator(ramlDirectory, new RecordingLog());
+		generator.run();
+		assertTrue(generator.getSourceFiles().contains(otherFile.getAbsoluteFile()));
+		
+		FileUtils.writeStringToFile(otherFile, other.substring(0, other.lastIndexOf("Filter by title")) + "Filter by name" +
+				other.substring(other.lastIndexOf("Filter by title") + "Filter by title".length()));
+		RecordingLog log = new RecordingLog();
+		generator.getConfiguration().withLogger(log);
+		generator.run(Collections.singleton(otherFile.getAbsoluteFile()));
+		
+		assertTrue(log.hasMessage(ramlFile.getPath() + " did not change. Skipping generation."));
+		assertFalse(log.hasMessage("Parsing RAML file " + ramlFile.getPath()));
+		assertTrue(log.hasMessage("Parsing RAML file " + otherFile.getPath()));
+		
+		File target = generator.getConfiguration().getGeneratedSourcesTarget();
+		this.assertSameSources(this.generate(ramlDirectory, "full", 1, false), this.readSources(target));
+	}
+	
+	@Test
+	public void testExecutionsSharingTheWorkingDirectoryKeepTheirValidations() throws Exception {
+		File firstDirectory = new File(DIRECTORY, "raml/first");
+		File secondDirectory = new File(DIRECTORY, "raml/second");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(firstDirectory, "api.raml"));
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(secondDirectory, "other.raml"));
+		
+		Generator first = this.createIncrementalGenerator(firstDirectory, "first", new RecordingLog());
+		Generator second = this.createIncrementalGenerator(secondDirectory, "second", new RecordingLog());
+		first.run();
+		second.run();
+		FileUtils.deleteQuietly(first.getConfiguration().getGeneratedSourcesTarget());
+		FileUtils.deleteQuietly(second.getConfiguration().getGeneratedSourcesTarget());
+		
+		RecordingLog firstLog = new RecordingLog();
+		RecordingLog secondLog = new RecordingLog();
+		this.createIncrementalGenerator(firstDirectory, "first", firstLog).run();
+		this.createIncrementalGenerator(secondDirectory, "second", secondLog).run();
+		
+		assertTrue(firstLog.hasMessage("Skipping validation."));
+		assertTrue(secondLog.hasMessage("Skipping validation."));
+	}
+	
+	@Test
+	public void testExecutionsSharingTheWorkingDirectoryStayIncremental() throws Exception {
+		File firstDirectory = new File(DIRECTORY, "raml/first");
+		File secondDirectory = new File(DIRECTORY, "raml/second");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(firstDirectory, "api.raml"));
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), new File(secondDirectory, "api.raml"));
+		
+		this.createIncrementalGenerator(firstDirectory, "first", new RecordingLog()).run();
+		this.createIncrementalGenerator(secondDirectory, "second", new RecordingLog()).run();
+		
+		RecordingLog firstLog = new RecordingLog();
+		RecordingLog secondLog = new RecordingLog();
+		Generator first = this.createIncrementalGenerator(firstDirectory, "first", firstLog);
+		first.run();
+		this.createIncrementalGenerator(secondDirectory, "second", secondLog).run();
+		
+		assertTrue(firstLog.hasMessage("is up to date. Skipping generation."));
+		assertTrue(secondLog.hasMessage("is up to date. Skipping generation."));
+		assertTrue(new File(first.getConfiguration().getExecutionDirectory(), GenerationManifest.FILE_NAME).isFile());
+	}
+	
+	@Test
+	public void testExecutionsSharingThePackageKeepEachOthersSources() throws Exception {
+		File firstDirectory = new File(DIRECTORY, "raml/first");
+		File secondDirectory = new File(DIRECTORY, "raml/second");
+		File ramlFile = new File(firstDirectory, "api.raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), ramlFile);
+		String raml = FileUtils.readFileToString(ramlFile);
+		FileUtils.writeStringToFile(new File(secondDirectory, "api.raml"), raml.replace("/test/something:", "/test/other:"));
+		
+		Generator first = this.createIncrementalGenerator(firstDirectory, "shared", new RecordingLog());
+		first.run();
+		this.createIncrementalGenerator(secondDirectory, "shared", new RecordingLog()).run();
+		
+		File target = first.getConfiguration().getGeneratedSourcesTarget();
+		File somethingService = new File(target, "gen/service/SomethingService.java");
+		File otherService = new File(target, "gen/service/OtherService.java");
+		File handWritten = new File(target, "gen/service/HandWrittenService.java");
+		FileUtils.writeStringToFile(handWritten, "package com.app.gen.service;\n\npublic class HandWrittenService {\n}\n");
+		assertTrue(somethingService.isFile());
+		assertTrue(otherService.isFile());
+		
+		FileUtils.writeStringToFile(ramlFile, raml.substring(0, raml.indexOf("/test/something:")));
+		first.run();
+		
+		assertFalse(somethingService.exists());
+		assertTrue(otherService.isFile());
+		assertTrue(handWritten.isFile());
+	}
+	
+	@Test
+	public void testStaleSourcesAreDeletedWithoutIncrementalGeneration() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		File ramlFile = new File(ramlDirectory, "api.raml");
+		FileUtils.copyFile(new File("src/test/resources/raml.yaml"), ramlFile);
+		
+		RecordingLog log = new RecordingLog();
+		Generator generator = this.createIncrementalGenerator(ramlDirectory, log);
+		generator.getConfiguration().withIncremental(false);
+		generator.run();
+		
+		File somethingService = new File(generator.getConfiguration().getGeneratedSourcesTarget(), "gen/service/SomethingService.java");
+		assertTrue(somethingService.isFile());
+		
+		String raml = FileUtils.readFileToString(ramlFile);
+		FileUtils.writeStringToFile(ramlFile, raml.substring(0, raml.indexOf("/test/something:")));
+		generator.run();
+		
+		assertFalse(somethingService.exists());
+		
+		generator.run();
+		assertFalse(log.hasMessage("is up to date. Skipping generation."));
+	}
+	
+	@Test
+	public void testValidationErrorsOfAllRamlFilesAreReported() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		String raml = FileUtils.readFileToString(new File("src/test/resources/raml.yaml")).replace(
+				"/test/something:\n  type: { typedCollection", "/test/something:\n  type: { unknownCollection");
+		FileUtils.writeStringToFile(new File(ramlDirectory, "api.raml"), raml);
+		FileUtils.writeStringToFile(new File(ramlDirectory, "copy.raml"), raml);
+		
+		try {
+			this.generate(ramlDirectory, "invalid", 4, false);
+			fail("Validation errors were expected.");
+		} catch (RuntimeException ex) {
+			assertTrue(ex.getMessage(), ex.getMessage().contains("(api.raml:"));
+			assertTrue(ex.getMessage(), ex.getMessage().contains("(copy.raml:"));
+		}
+	}
+	
+	private void assertSameSources(Map<String, String> expected, Map<String, String> actual) {
+		assertEquals(expected.keySet(), actual.keySet());
+		for (String path : expected.keySet()) {
+			assertEquals(path, expected.get(path), actual.get(path));
+		}
+	}
+	
+	private Map<String, String> generate(File ramlDirectory, String name, int threads, boolean streaming) throws Exception {
+		File target = new File(DIRECTORY, name + "/" + BASE_PACKAGE.replace('.', '/'));
+		
+		new Generator().withConfiguration(new Configuration()
+			.withBasePackageName(BASE_PACKAGE)
+			.withSourceDirectory(ramlDirectory)
+			.withGeneratedSourcesTarget(target)
+			.withIncremental(false)
+			.withThreads(threads)
+			.withStreaming(streaming)
+			.withLogger(new QuietLog())).run();
+		
+		return this.readSources(target);
+	}
+	
+	private Generator createIncrementalGenerator(File ramlDirectory, RecordingLog log) {
+		return this.createIncrementalGenerator(ramlDirectory, "incremental", log);
+	}
+	
+	private Generator createIncrementalGenerator(File ramlDirectory, String name, RecordingLog log) {
+		return new Generator().withConfiguration(new Configuration()
+			.withBasePackageName(BASE_PACKAGE)
+			.withSourceDirectory(ramlDirectory)
+			.withGeneratedSourcesTarget(new File(DIRECTORY, name + "/" + BASE_PACKAGE.replace('.', '/')))
+			.withWorkingDirectory(new File(DIRECTORY, "work"))
+			.withIncremental(true)
+			.withLogger(log));
+	}
+	
+	private Map<String, String> readSources(File target) throws Exception {
+		Map<String, String> sources = new TreeMap<String, String>();
+		for (File file : FileUtils.listFiles(target, null, true)) {
+			sources.put(file.getPath().substring(target.getPath().length()), FileUtils.readFileToString(file));
+		}
+		
+		return sources;
+	}
+	
+	private static class RecordingLog extends QuietLog {
+		
+		private static final String GENERATED = "Generated class: ";
+		
+		private List<String> generatedClasses = Collections.synchronizedList(new ArrayList<String>());
+		private List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+		
+		@Override
+		public void info(CharSequence content) {
+			this.messages.add(content.toString());
+			if (content.toString().startsWith(GENERATED)) {
+				this.generatedClasses.add(content.toString().substring(GENERATED.length()));
+			}
+		}
+		
+		public List<String> getGeneratedClasses() {
+			return this.generatedClasses;
+		}
+		
+		public boolean hasMessage(String suffix) {
+			synchronized (this.messages) {
+				for (String message : this.messages) {
+					if (message.endsWith(suffix)) {
+						return true;
+					}
+				}
+			}
+			
+			return false;
+		}
+	}
+}
\ No newline at end of file
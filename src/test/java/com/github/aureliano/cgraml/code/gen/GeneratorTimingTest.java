@@ -0,0 +1,56 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.aureliano.cgraml.support.RamlCorpus;
+import com.github.aureliano.cgraml.support.ScalingGeneration;
+
+/**
+ * Checks that elapsed generation time per resource does not grow with the size of the RAML document. Wall-clock
+ * budgets depend on the machine and its load, so this test is left out of the default build and runs with the
+ * benchmarks profile: <code>mvn -Pbenchmarks test</code>.
+ */
+public class GeneratorTimingTest {
+	
+	private static final long TIME_BUDGET_BASE_MILLIS = 5000;
+	private static final long TIME_BUDGET_PER_RESOURCE_MILLIS = 100;
+	private static final double MAX_GROWTH_FACTOR = 2.0;
+	
+	private ScalingGeneration scaling = new ScalingGeneration(new File("target/test-timing"));
+	
+	@After
+	public void afterTest() {
+		this.scaling.delete();
+	}
+	
+	@Test
+	public void testGenerationTimeScalesLinearly() {
+		this.scaling.generate("warmup", ScalingGeneration.SMALL);
+		
+		RamlCorpus small = this.scaling.createCorpus(ScalingGeneration.SMALL);
+		RamlCorpus large = this.scaling.createCorpus(ScalingGeneration.LARGE);
+		
+		Generator smallGenerator = this.scaling.createGenerator("small", ScalingGeneration.SMALL);
+		long start = System.nanoTime();
+		smallGenerator.run();
+		long smallElapsed = (System.nanoTime() - start) / 1000000;
+		
+		Generator largeGenerator = this.scaling.createGenerator("large", ScalingGeneration.LARGE);
+		start = System.nanoTime();
+		largeGenerator.run();
+		long largeElapsed = (System.nanoTime() - start) / 1000000;
+		
+		assertTrue("Generation of " + large.countResources() + " resources took " + largeElapsed + "ms.",
+				largeElapsed <= TIME_BUDGET_BASE_MILLIS + TIME_BUDGET_PER_RESOURCE_MILLIS * large.countResources());
+		
+		double smallPerResource = (double) (smallElapsed + 1) / small.countResources();
+		double largePerResource = (double) largeElapsed / large.countResources();
+		assertTrue("Time per resource grew from " + smallPerResource + "ms to " + largePerResource + "ms.",
+				largePerResource <= MAX_GROWTH_FACTOR * smallPerResource + 1);
+	}
+}
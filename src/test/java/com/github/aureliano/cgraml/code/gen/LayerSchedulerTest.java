@@ -0,0 +1,106 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LayerSchedulerTest {
+	
+	@Test
+	public void testTopologicalOrder() {
+		List<GeneratorType> order = LayerScheduler.topologicalOrder(Arrays.asList(GeneratorType.values()));
+		Assert.assertEquals(GeneratorType.values().length, order.size());
+		
+		for (GeneratorType type : order) {
+			for (GeneratorType dependency : type.getDependencies()) {
+				Assert.assertTrue(order.indexOf(dependency) < order.indexOf(type));
+			}
+		}
+	}
+	
+	@Test
+	public void testRunInParallel() {
+		final List<GeneratorType> executed = Collections.synchronizedList(new ArrayList<GeneratorType>());
+		ForkJoinPool pool = new ForkJoinPool(4);
+		
+		try {
+			new LayerScheduler(pool).run(Arrays.asList(GeneratorType.values()), new LayerScheduler.LayerAction() {
+				@Override
+				public void execute(GeneratorType type) {
+					for (GeneratorType dependency : type.getDependencies()) {
+						Assert.assertTrue(executed.contains(dependency));
+					}
+					executed.add(type);
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+		
+		Assert.assertEquals(GeneratorType.values().length, executed.size());
+	}
+	
+	@Test(timeout = 30000)
+	public void testFailure() {
+		final List<GeneratorType> executed = Collections.synchronizedList(new ArrayList<GeneratorType>());
+		ForkJoinPool pool = new ForkJoinPool(4);
+		
+		try {
+			new LayerScheduler(pool).run(Arrays.asList(GeneratorType.values()), new LayerScheduler.LayerAction() {
+				@Override
+				public void execute(GeneratorType type) {
+					if (type.getDependencies().length == 0) {
+						throw new IllegalStateException("Failed " + type.name());
+					}
+					executed.add(type);
+				}
+			});
+			Assert.fail("Layer failure was not propagated.");
+		} catch (IllegalStateException ex) {
+			Assert.assertTrue(ex.getMessage().startsWith("Failed "));
+		} finally {
+			pool.shutdown();
+		}
+
+		Assert.assertTrue(executed.isEmpty());
+	}
+	
+	@Test(timeout = 30000)
+	public void testFailureWaitsForOtherLayers() {
+		final List<GeneratorType> executed = Collections.synchronizedList(new ArrayList<GeneratorType>());
+		ForkJoinPool pool = new ForkJoinPool(4);
+		
+		try {
+			new LayerScheduler(pool).run(Arrays.asList(GeneratorType.values()), new LayerScheduler.LayerAction() {
+				@Override
+				public void execute(GeneratorType type) {
+					if (type == GeneratorType.MODEL) {
+						throw new IllegalStateException("Failed " + type.name());
+					}
+					
+					try {
+						Thread.sleep(50);
+					} catch (InterruptedException ex) {
+						throw new RuntimeException(ex);
+					}
+					executed.add(type);
+				}
+			});
+			Assert.fail("Layer failure was not propagated.");
+		} catch (IllegalStateException ex) {
+			Assert.assertEquals("Failed MODEL", ex.getMessage());
+		} finally {
+			pool.shutdown();
+		}
+		
+		EnumSet<GeneratorType> expected = EnumSet.allOf(GeneratorType.class);
+		expected.removeAll(Arrays.asList(GeneratorType.MODEL, GeneratorType.SERVICE, GeneratorType.API_MAP_SERVICES));
+		Assert.assertEquals(expected, EnumSet.copyOf(executed));
+	}
+}
@@ -0,0 +1,45 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+public class SourceWatcherTest {
+	
+	private static final File DIRECTORY = new File("target/test-watcher");
+	
+	@After
+	public void afterTest() {
+		FileUtils.deleteQuietly(DIRECTORY);
+	}
+	
+	@Test(timeout = 30000)
+	public void testTake() throws Exception {
+		File ramlDirectory = new File(DIRECTORY, "raml");
+		File ramlFile = new File(ramlDirectory, "v1/api.raml");
+		File schemaFile = new File(DIRECTORY, "schemas/product.json");
+		FileUtils.writeStringToFile(ramlFile, "#%RAML 0.8\nschemas:\n  - product: !include ../../schemas/product.json\n");
+		FileUtils.writeStringToFile(schemaFile, "{}");
+		
+		SourceWatcher watcher = new SourceWatcher(new Configuration().withSourceDirectory(ramlDirectory).withIncludes(Arrays.asList("**/*.raml")));
+		try {
+			watcher.watchIncludes();
+			
+			FileUtils.writeStringToFile(new File(ramlDirectory, "v1/report.json"), "{}");
+			FileUtils.writeStringToFile(new File(DIRECTORY, "schemas/other.json"), "{}");
+			FileUtils.writeStringToFile(ramlFile, "#%RAML 0.8\nschemas:\n  - product: !include ../../schemas/product.json\ntitle: API\n");
+			FileUtils.writeStringToFile(schemaFile, "{ \"type\": \"object\" }");
+			
+			assertEquals(new HashSet<File>(Arrays.asList(ramlFile.getAbsoluteFile(), schemaFile.getAbsoluteFile())),
+					watcher.take(500));
+		} finally {
+			watcher.close();
+		}
+	}
+}
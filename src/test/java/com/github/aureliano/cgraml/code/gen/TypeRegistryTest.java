@@ -0,0 +1,64 @@
+package com.github.aureliano.cgraml.code.gen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+
+public class TypeRegistryTest {
+	
+	@Test
+	public void testResolveClass() {
+		TypeRegistry types = new TypeRegistry();
+		
+		assertSame(String.class, types.resolveClass("java.lang.String"));
+		assertSame(String.class, types.resolveClass("java.lang.String"));
+		assertNull(types.resolveClass("Product"));
+		assertNull(types.resolveClass("Product"));
+		assertNull(types.resolveClass(null));
+		
+		assertEquals(1, types.getResolvedCount());
+		assertEquals(1, types.getUnresolvedCount());
+	}
+	
+	@Test
+	public void testRegisterGeneratedClass() {
+		TypeRegistry types = new TypeRegistry();
+		types.registerGeneratedClass("com.app.gen.model.Product");
+		
+		assertFalse(types.isJavaType("com.app.gen.model.Product"));
+		assertTrue(types.isJavaType("java.lang.Integer"));
+		assertEquals(1, types.getUnresolvedCount());
+	}
+	
+	@Test
+	public void testResolve() {
+		TypeRegistry types = new TypeRegistry();
+		JCodeModel codeModel = new JCodeModel();
+		
+		assertEquals("java.lang.String", types.resolve(codeModel, "java.lang.String").fullName());
+		assertEquals("com.app.gen.model.Product", types.resolve(codeModel, "com.app.gen.model.Product").fullName());
+		
+		JClass list = types.resolve(codeModel, List.class.getName(), "com.app.gen.model.Product");
+		assertEquals("java.util.List<com.app.gen.model.Product>", list.fullName());
+		assertEquals("java.util.List", list.erasure().fullName());
+	}
+	
+	@Test
+	public void testResolveParameterizedName() {
+		TypeRegistry types = new TypeRegistry();
+		JCodeModel codeModel = new JCodeModel();
+		
+		JClass future = types.resolve(codeModel, "java.util.concurrent.Future", "java.util.List<com.app.gen.model.Product>");
+		assertEquals("java.util.concurrent.Future<java.util.List<com.app.gen.model.Product>>", future.fullName());
+		assertEquals("java.util.List", future.getTypeParameters().get(0).erasure().fullName());
+	}
+}
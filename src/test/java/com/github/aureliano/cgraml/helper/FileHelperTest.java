@@ -0,0 +1,58 @@
+package com.github.aureliano.cgraml.helper;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileHelperTest {
+	
+	private static final File DIRECTORY = new File("target/test-file-helper");
+	
+	@Before
+	public void beforeTest() throws Exception {
+		for (String path : new String[] { "api.raml", "readme.txt", "v1/orders.raml", "v1/schemas/order.json", "v2/beta/items.raml" }) {
+			FileUtils.writeStringToFile(new File(DIRECTORY, path), "#%RAML 0.8");
+		}
+	}
+	
+	@After
+	public void afterTest() {
+		FileUtils.deleteQuietly(DIRECTORY);
+	}
+	
+	@Test
+	public void testFindFiles() {
+		assertEquals(Arrays.asList("api.raml", "v1/orders.raml", "v2/beta/items.raml"),
+				this.relativePaths(FileHelper.findFiles(DIRECTORY, Arrays.asList("**/*.raml"), null)));
+		assertEquals(Arrays.asList("api.raml"),
+				this.relativePaths(FileHelper.findFiles(DIRECTORY, Arrays.asList("*.raml"), null)));
+		assertEquals(Arrays.asList("v1/orders.raml", "v2/beta/items.raml"),
+				this.relativePaths(FileHelper.findFiles(DIRECTORY, Arrays.asList("v*/**/*.raml"), null)));
+	}
+	
+	@Test
+	public void testFindFilesWithExcludes() {
+		assertEquals(Arrays.asList("api.raml", "v1/orders.raml"),
+				this.relativePaths(FileHelper.findFiles(DIRECTORY, Arrays.asList("**/*.raml"), Arrays.asList("**/beta/**"))));
+		assertEquals(Collections.emptyList(),
+				this.relativePaths(FileHelper.findFiles(DIRECTORY, Arrays.asList("**/*.raml"), Arrays.asList("**"))));
+	}
+	
+	private List<String> relativePaths(List<File> files) {
+		List<String> paths = new ArrayList<String>();
+		for (File file : files) {
+			paths.add(FileHelper.relativePath(DIRECTORY, file));
+		}
+		
+		return paths;
+	}
+}
@@ -1,18 +1,25 @@
 package com.github.aureliano.cgraml.helper;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import org.junit.Test;
 import org.raml.model.Raml;
-import org.raml.model.Resource;
 
-import com.github.aureliano.cgraml.code.gen.Generator;
+import com.github.aureliano.cgraml.code.gen.RamlDocument;
+import com.github.aureliano.cgraml.code.gen.ResourceIndex;
+import com.github.aureliano.cgraml.code.gen.ResourceMapping;
 import com.github.aureliano.cgraml.code.meta.FieldMeta;
+import com.github.aureliano.cgraml.code.meta.ServiceGraph;
 import com.github.aureliano.cgraml.code.meta.ServiceMeta;
 import com.github.aureliano.cgraml.helper.RamlHelper;
 
@@ -36,19 +43,37 @@ public class RamlHelperTest {
 	}
 	
 	@Test
-	public void testParseYaml() {
-		Map<?, ?> raml = RamlHelper.parseYaml("src/test/resources/raml.yaml");
+	public void testLoadDocument() {
+		File file = new File("src/test/resources/raml.yaml");
+		RamlDocument document = RamlHelper.loadDocument(file);
 		
-		assertEquals("Muse: Mule Sales Enablement API", raml.get("title"));
-		assertEquals("http://example.api.com/v1", raml.get("baseUri"));
-		assertEquals("v1", raml.get("version"));
+		assertEquals(file, document.getFile());
+		assertEquals("Muse: Mule Sales Enablement API", document.getRaml().getTitle());
+		assertNotNull(document.getResourceIndex().get("/products"));
+		assertEquals(document.getRaml().getResources().size(), document.getServiceGraph().getRootServices().size());
+		assertEquals(4, document.getRaml().getSchemas().size());
+	}
+	
+	@Test(expected = RuntimeException.class)
+	public void testLoadDocumentWithError() {
+		RamlHelper.loadDocument(new File("src/test/resources/modelFile.raml"));
+	}
+	
+	@Test
+	public void testFingerprint() {
+		File file = new File("src/test/resources/raml.yaml");
+		String fingerprint = RamlHelper.fingerprint(file, "config");
+		
+		assertEquals(40, fingerprint.length());
+		assertEquals(fingerprint, RamlHelper.fingerprint(file, "config"));
+		assertFalse(fingerprint.equals(RamlHelper.fingerprint(file, "other config")));
+		assertFalse(fingerprint.equals(RamlHelper.fingerprint(new File("src/test/resources/raml_definition.raml"), "config")));
 	}
 	
 	@Test
 	public void testResourceToService() {
-		Generator.currentRamlMap = RamlHelper.parseYaml("src/test/resources/raml.yaml");
-		Raml raml = RamlHelper.parseModel("src/test/resources/raml.yaml");
-		ServiceMeta service = RamlHelper.resourceToService(raml.getResource("/products"));
+		RamlDocument document = RamlHelper.loadDocument(new File("src/test/resources/raml.yaml"));
+		ServiceMeta service = RamlHelper.resourceToService(document.getResourceIndex(), document.getRaml().getResource("/products"));
 		
 		assertNotNull(service);
 		
@@ -65,14 +90,46 @@ public class RamlHelperTest {
 	}
 	
 	@Test
-	public void  testGetResourceTypeMapping() {
-		Generator.currentRamlMap = RamlHelper.parseYaml("src/test/resources/raml.yaml");
-		Raml raml = RamlHelper.parseModel("src/test/resources/raml.yaml");
+	public void testResourceIndex() {
+		RamlDocument document = RamlHelper.loadDocument(new File("src/test/resources/raml.yaml"));
+		Raml raml = document.getRaml();
+		ResourceIndex index = document.getResourceIndex();
 		
-		Map<String, Object> map = (Map<String, Object>) RamlHelper.getResourceMapping(raml.getResource("/products").getResource("/{productId}"));
-		assertEquals("typedMember", ((Map<String, Resource>) map.get("type")).keySet().iterator().next());
+		ResourceMapping mapping = index.get(raml.getResource("/products").getResource("/{productId}").getUri());
+		assertEquals("/{productId}", mapping.getRelativeUri());
+		assertEquals("typedMember", mapping.getResourceType());
+		assertEquals("product", mapping.getSchema());
 		
-		map = (Map<String, Object>) RamlHelper.getResourceMapping(raml.getResource("/test/something"));
-		assertEquals("typedCollection", ((Map<String, Resource>) map.get("type")).keySet().iterator().next());
+		mapping = index.get(raml.getResource("/test/something").getUri());
+		assertEquals("/test/something", mapping.getRelativeUri());
+		assertEquals("typedCollection", mapping.getResourceType());
+		
+		assertNull(index.get("/unknown"));
+	}
+	
+	@Test
+	public void testBuildServiceGraph() {
+		RamlDocument document = RamlHelper.loadDocument(new File("src/test/resources/raml.yaml"));
+		Raml raml = document.getRaml();
+		ServiceGraph graph = RamlHelper.buildServiceGraph(document.getResourceIndex(), raml.getResources().values());
+		
+		assertEquals(raml.getResources().size(), graph.getRootServices().size());
+		
+		ServiceMeta products = graph.getRootServices().get(graph.getRootServices().indexOf(RamlHelper.resourceToService(
+				document.getResourceIndex(), raml.getResource("/products"))));
+		assertEquals("/products", products.getUri());
+		assertNull(products.getParentService());
+		
+		ServiceMeta product = products.getNextServices().get(0);
+		assertEquals("/{productId}", product.getUri());
+		assertSame(products, product.getParentService());
+		assertTrue(graph.getServices().contains(product));
+		
+		try {
+			products.addNextService(new ServiceMeta());
+			fail("Service graph must not be changed after it is built.");
+		} catch (UnsupportedOperationException ex) {
+			assertEquals(1, products.getNextServices().size());
+		}
 	}
 }
\ No newline at end of file
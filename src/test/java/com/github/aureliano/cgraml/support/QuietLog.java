@@ -0,0 +1,27 @@
+package com.github.aureliano.cgraml.support;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+/**
+ * Maven log that only prints warnings and errors, so large generations do not flood the test output.
+ */
+public class QuietLog extends SystemStreamLog {
+	
+	@Override
+	public boolean isDebugEnabled() {
+		return false;
+	}
+	
+	@Override
+	public boolean isInfoEnabled() {
+		return false;
+	}
+	
+	@Override
+	public void debug(CharSequence content) {
+	}
+	
+	@Override
+	public void info(CharSequence content) {
+	}
+}
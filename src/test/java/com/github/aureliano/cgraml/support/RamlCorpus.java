@@ -0,0 +1,311 @@
+package com.github.aureliano.cgraml.support;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Builds synthetic RAML documents for benchmarks and scaling tests. The shape of the document is controlled by:
+ * <ul>
+ * <li>resources - number of top level resources;</li>
+ * <li>depth - levels of collection/member resources nested under each top level collection;</li>
+ * <li>schemasPerResource - schemas emitted for each top level resource (the first one is the resource's own);</li>
+ * <li>queryParameters - query parameters declared by each collection GET;</li>
+ * <li>typedCollectionRatio - share of top level resources that are typed collections (the others are typed members);</li>
+ * <li>linkedDataFanOut - $linkedData entries of each top level schema, pointing to other collections.</li>
+ * </ul>
+ */
+public class RamlCorpus {
+	
+	private int resources;
+	private int depth;
+	private int schemasPerResource;
+	private int queryParameters;
+	private double typedCollectionRatio;
+	private int linkedDataFanOut;
+	
+	public RamlCorpus() {
+		this.resources = 10;
+		this.depth = 1;
+		this.schemasPerResource = 1;
+		this.queryParameters = 1;
+		this.typedCollectionRatio = 1.0;
+		this.linkedDataFanOut = 0;
+	}
+	
+	public String build() {
+		StringBuilder raml = new StringBuilder()
+			.append("#%RAML 0.8\n")
+			.append("---\n")
+			.append("title: Synthetic API\n")
+			.append("baseUri: http://example.api.com/v1\n")
+			.append("version: v1\n");
+		
+		this.appendSchemas(raml);
+		this.appendResourceTypes(raml);
+		this.appendTraits(raml);
+		this.appendResources(raml);
+		
+		return raml.toString();
+	}
+	
+	public File write(File file) {
+		try {
+			FileUtils.writeStringToFile(file, this.build(), "UTF-8");
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+		
+		return file;
+	}
+	
+	/**
+	 * @return Number of resources (collections and members at every level) in the document.
+	 */
+	public int countResources() {
+		int count = 0;
+		for (int i = 0; i < this.resources; i++) {
+			count += (this.isTypedCollection(i)) ? 2 * (this.depth + 1) : 1;
+		}
+		
+		return count;
+	}
+	
+	private void appendSchemas(StringBuilder raml) {
+		raml.append("schemas:\n");
+		for (int i = 0; i < this.resources; i++) {
+			String entity = entity(i, 0);
+			this.appendSchema(raml, entity, this.linkedData(i));
+			
+			if (!this.isTypedCollection(i)) {
+				continue;
+			}
+			
+			this.appendCollectionSchema(raml, entity);
+			for (int level = 1; level <= this.depth; level++) {
+				this.appendSchema(raml, entity(i, level), "");
+				this.appendCollectionSchema(raml, entity(i, level));
+			}
+			
+			for (int j = 1; j < this.schemasPerResource; j++) {
+				this.appendSchema(raml, entity + "x" + j, "");
+			}
+		}
+	}
+	
+	private void appendSchema(StringBuilder raml, String entity, String linkedData) {
+		raml
+			.append("  - ").append(entity).append(": |\n")
+			.append("      {  \"$schema\": \"http://json-schema.org/draft-03/schema\",\n")
+			.append("         \"type\": \"object\",\n")
+			.append("         \"description\": \"A single ").append(entity).append("\",\n")
+			.append(linkedData)
+			.append("         \"properties\": {\n")
+			.append("           \"id\":  { \"type\": \"string\", \"required\": true },\n")
+			.append("           \"name\":  { \"type\": \"string\", \"required\": true },\n")
+			.append("           \"description\":  { \"type\": \"string\" },\n")
+			.append("           \"amount\":  { \"type\": \"integer\" }\n")
+			.append("         }\n")
+			.append("      }\n");
+	}
+	
+	private void appendCollectionSchema(StringBuilder raml, String entity) {
+		raml
+			.append("  - ").append(entity).append("s: |\n")
+			.append("      {  \"$schema\": \"http://json-schema.org/draft-03/schema\",\n")
+			.append("         \"type\": \"object\",\n")
+			.append("         \"description\": \"A collection of ").append(entity).append("s\",\n")
+			.append("         \"properties\": {\n")
+			.append("           \"size\":  { \"type\": \"integer\", \"required\": true },\n")
+			.append("           \"").append(entity).append("s\":  {\n")
+			.append("              \"type\": \"array\",\n")
+			.append("              \"items\": { \"$ref\": \"").append(entity).append("\" }\n")
+			.append("           }\n")
+			.append("         }\n")
+			.append("      }\n");
+	}
+	
+	private String linkedData(int index) {
+		StringBuilder linkedData = new StringBuilder();
+		int links = 0;
+		
+		for (int offset = 1; (offset < this.resources) && (links < this.linkedDataFanOut); offset++) {
+			int target = (index + offset) % this.resources;
+			if (!this.isTypedCollection(target)) {
+				continue;
+			}
+			
+			String entity = entity(target, 0);
+			linkedData
+				.append((links == 0) ? "" : ",\n")
+				.append("           \"").append(entity).append("s\": { \"type\": \"collection\", \"schema\": \"")
+				.append(entity).append("\", \"path\": [ \"/").append(entity).append("s\" ] }");
+			links++;
+		}
+		
+		if (links == 0) {
+			return "";
+		}
+		
+		return new StringBuilder()
+			.append("         \"$linkedData\": {\n")
+			.append(linkedData).append("\n")
+			.append("         },\n")
+			.toString();
+	}
+	
+	private void appendResourceTypes(StringBuilder raml) {
+		raml
+			.append("resourceTypes:\n")
+			.append("  - typedCollection:\n")
+			.append("      get:\n")
+			.append("        is: [ paged ]\n")
+			.append("        responses:\n")
+			.append("          200:\n")
+			.append("            body:\n")
+			.append("              application/json:\n")
+			.append("                schema: <<collectionSchema>>\n")
+			.append("      post:\n")
+			.append("        body:\n")
+			.append("          application/json:\n")
+			.append("            schema: <<schema>>\n")
+			.append("        responses:\n")
+			.append("          201:\n")
+			.append("            body:\n")
+			.append("              application/json:\n")
+			.append("                schema: <<schema>>\n")
+			.append("  - typedMember:\n")
+			.append("      get:\n")
+			.append("        responses:\n")
+			.append("          200:\n")
+			.append("            body:\n")
+			.append("              application/json:\n")
+			.append("                schema: <<schema>>\n")
+			.append("      put:\n")
+			.append("        body:\n")
+			.append("          application/json:\n")
+			.append("            schema: <<schema>>\n")
+			.append("        responses:\n")
+			.append("          200:\n")
+			.append("            body:\n")
+			.append("              application/json:\n")
+			.append("                schema: <<schema>>\n")
+			.append("      delete:\n");
+	}
+	
+	private void appendTraits(StringBuilder raml) {
+		raml
+			.append("traits:\n")
+			.append("  - paged:\n")
+			.append("      queryParameters:\n")
+			.append("        start:\n")
+			.append("          type: integer\n")
+			.append("        pages:\n")
+			.append("          type: integer\n");
+	}
+	
+	private void appendResources(StringBuilder raml) {
+		for (int i = 0; i < this.resources; i++) {
+			String entity = entity(i, 0);
+			
+			if (!this.isTypedCollection(i)) {
+				raml
+					.append("/").append(entity).append(":\n")
+					.append("  type: { typedMember: { schema: ").append(entity).append(" } }\n");
+				continue;
+			}
+			
+			String indentation = "";
+			for (int level = 0; level <= this.depth; level++) {
+				this.appendCollectionResource(raml, indentation, entity(i, level));
+				indentation += "    ";
+			}
+		}
+	}
+	
+	private void appendCollectionResource(StringBuilder raml, String indentation, String entity) {
+		raml
+			.append(indentation).append("/").append(entity).append("s:\n")
+			.append(indentation).append("  type: { typedCollection: { schema: ").append(entity)
+			.append(", collectionSchema: ").append(entity).append("s } }\n");
+		
+		if (this.queryParameters > 0) {
+			raml
+				.append(indentation).append("  get:\n")
+				.append(indentation).append("    queryParameters:\n");
+			
+			for (int k = 0; k < this.queryParameters; k++) {
+				raml
+					.append(indentation).append("      filter").append(k).append(":\n")
+					.append(indentation).append("        type: ").append((k % 2 == 0) ? "string" : "integer").append("\n");
+			}
+		}
+		
+		raml
+			.append(indentation).append("  /{").append(entity).append("Id}:\n")
+			.append(indentation).append("    type: { typedMember: { schema: ").append(entity).append(" } }\n");
+	}
+	
+	private boolean isTypedCollection(int index) {
+		return Math.floor((index + 1) * this.typedCollectionRatio) > Math.floor(index * this.typedCollectionRatio);
+	}
+	
+	private static String entity(int index, int level) {
+		return (level == 0) ? "item" + index : "item" + index + "n" + level;
+	}
+	
+	public int getResources() {
+		return this.resources;
+	}
+	
+	public RamlCorpus withResources(int resources) {
+		this.resources = resources;
+		return this;
+	}
+	
+	public int getDepth() {
+		return this.depth;
+	}
+
+	public RamlCorpus withDepth(int depth) {
+		this.depth = depth;
+		return this;
+	}
+	
+	public int getSchemasPerResource() {
+		return this.schemasPerResource;
+	}
+	
+	public RamlCorpus withSchemasPerResource(int schemasPerResource) {
+		this.schemasPerResource = schemasPerResource;
+		return this;
+	}
+	
+	public int getQueryParameters() {
+		return this.queryParameters;
+	}
+	
+	public RamlCorpus withQueryParameters(int queryParameters) {
+		this.queryParameters = queryParameters;
+		return this;
+	}
+	
+	public double getTypedCollectionRatio() {
+		return this.typedCollectionRatio;
+	}
+	
+	public RamlCorpus withTypedCollectionRatio(double typedCollectionRatio) {
+		this.typedCollectionRatio = typedCollectionRatio;
+		return this;
+	}
+	
+	public int getLinkedDataFanOut() {
+		return this.linkedDataFanOut;
+	}
+	
+	public RamlCorpus withLinkedDataFanOut(int linkedDataFanOut) {
+		this.linkedDataFanOut = linkedDataFanOut;
+		return this;
+	}
+}
@@ -0,0 +1,59 @@
+package com.github.aureliano.cgraml.support;
+
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+
+import com.github.aureliano.cgraml.code.gen.Configuration;
+import com.github.aureliano.cgraml.code.gen.Generator;
+
+/**
+ * Generates the synthetic RAML documents of the scaling tests. Every generation has a subdirectory of its own, with
+ * the RAML document written before the generator is handed back, so tests can measure the generation alone.
+ */
+public class ScalingGeneration {
+	
+	public static final int SMALL = 20;
+	public static final int LARGE = 80;
+	
+	private static final String BASE_PACKAGE = "com.scaling";
+	
+	private File directory;
+	
+	public ScalingGeneration(File directory) {
+		this.directory = directory;
+	}
+	
+	public RamlCorpus createCorpus(int resources) {
+		return new RamlCorpus()
+			.withResources(resources)
+			.withDepth(2)
+			.withSchemasPerResource(2)
+			.withQueryParameters(3)
+			.withTypedCollectionRatio(0.75)
+			.withLinkedDataFanOut(2);
+	}
+	
+	/**
+	 * Writes a RAML document with the given number of top level resources and creates the generator of its sources.
+	 */
+	public Generator createGenerator(String name, int resources) {
+		File ramlDirectory = new File(this.directory, name + "/raml");
+		this.createCorpus(resources).write(new File(ramlDirectory, "api.raml"));
+		
+		return new Generator().withConfiguration(new Configuration()
+			.withBasePackageName(BASE_PACKAGE)
+			.withSourceDirectory(ramlDirectory)
+			.withGeneratedSourcesTarget(new File(this.directory, name + "/src/" + BASE_PACKAGE.replace('.', '/')))
+			.withIncremental(false)
+			.withLogger(new QuietLog()));
+	}
+	
+	public void generate(String name, int resources) {
+		this.createGenerator(name, resources).run();
+	}
+	
+	public void delete() {
+		FileUtils.deleteQuietly(this.directory);
+	}
+}